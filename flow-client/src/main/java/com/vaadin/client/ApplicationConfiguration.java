@@ -34,6 +34,8 @@ public class ApplicationConfiguration {
     private int uiId;
     private ErrorMessage sessionExpiredError;
     private int heartbeatInterval;
+    private String sharedConstantsHash;
+    private boolean compactChanges;
 
     private boolean productionMode;
     private boolean requestTiming;
@@ -143,6 +145,50 @@ public class ApplicationConfiguration {
         this.heartbeatInterval = heartbeatInterval;
     }
 
+    /**
+     * Gets the hash of the shared constant table loaded by the bootstrap page.
+     *
+     * @return the shared constant table hash, or <code>null</code> if no
+     *         shared constants are used
+     */
+    public String getSharedConstantsHash() {
+        return sharedConstantsHash;
+    }
+
+    /**
+     * Sets the hash of the shared constant table loaded by the bootstrap page.
+     *
+     * @param sharedConstantsHash
+     *            the shared constant table hash, or <code>null</code> if no
+     *            shared constants are used
+     */
+    public void setSharedConstantsHash(String sharedConstantsHash) {
+        this.sharedConstantsHash = sharedConstantsHash;
+    }
+
+    /**
+     * Checks whether the server sends state tree changes in the compact
+     * encoding.
+     *
+     * @return <code>true</code> if changes are sent as positional arrays,
+     *         <code>false</code> if they are sent as JSON objects
+     */
+    public boolean isCompactChanges() {
+        return compactChanges;
+    }
+
+    /**
+     * Sets whether the server sends state tree changes in the compact
+     * encoding.
+     *
+     * @param compactChanges
+     *            <code>true</code> if changes are sent as positional arrays,
+     *            <code>false</code> if they are sent as JSON objects
+     */
+    public void setCompactChanges(boolean compactChanges) {
+        this.compactChanges = compactChanges;
+    }
+
     /**
      * Gets the message used when a session expiration error occurs.
      *
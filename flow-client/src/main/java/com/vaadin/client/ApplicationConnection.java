@@ -27,6 +27,7 @@ import com.vaadin.client.flow.binding.Binder;
 import elemental.client.Browser;
 import elemental.dom.Element;
 import elemental.dom.Node;
+import elemental.json.JsonObject;
 
 /**
  * Main class for an application / UI.
@@ -50,6 +51,9 @@ public class ApplicationConnection {
         GWT.setUncaughtExceptionHandler(
                 registry.getSystemErrorHandler()::handleError);
 
+        importSharedConstants(
+                applicationConfiguration.getSharedConstantsHash());
+
         StateNode rootNode = registry.getStateTree().getRootNode();
 
         // Bind UI configuration objects
@@ -88,6 +92,24 @@ public class ApplicationConnection {
         registry.getLoadingIndicator().show();
     }
 
+    private void importSharedConstants(String hash) {
+        if (hash == null) {
+            return;
+        }
+        JsonObject constants = getSharedConstants(hash);
+        if (constants == null) {
+            Console.error("Shared constants " + hash + " have not been loaded");
+        } else {
+            registry.getConstantPool().importFromJson(constants);
+        }
+    }
+
+    private static native JsonObject getSharedConstants(String hash)
+    /*-{
+        var constants = $wnd.Vaadin.Flow.sharedConstants;
+        return constants ? constants[hash] || null : null;
+    }-*/;
+
     /**
      * Starts this application.
      * <p>
@@ -142,6 +142,10 @@ public class Bootstrapper implements EntryPoint {
 
         conf.setHeartbeatInterval(
                 jsoConfiguration.getConfigInteger("heartbeatInterval"));
+        conf.setSharedConstantsHash(jsoConfiguration
+                .getConfigString(ApplicationConstants.SHARED_CONSTANTS));
+        conf.setCompactChanges(jsoConfiguration
+                .getConfigBoolean(ApplicationConstants.COMPACT_CHANGES));
 
         conf.setServletVersion(jsoConfiguration.getVaadinVersion());
         conf.setAtmosphereVersion(jsoConfiguration.getAtmosphereVersion());
@@ -366,6 +366,12 @@ public class MessageHandler {
 
             JsonObject json = valueMap.cast();
 
+            if (json.hasKey(JsonConstants.UIDL_KEY_EVICTED_CONSTANTS)) {
+                // Evict first so that an evicted id can be imported again
+                registry.getConstantPool().evict(json
+                        .getArray(JsonConstants.UIDL_KEY_EVICTED_CONSTANTS));
+            }
+
             if (json.hasKey("constants")) {
                 ConstantPool constantPool = registry.getConstantPool();
                 JsonObject constants = json.getObject("constants");
@@ -458,7 +464,8 @@ public class MessageHandler {
     private void processChanges(JsonObject json) {
         StateTree tree = registry.getStateTree();
         JsSet<StateNode> updatedNodes = TreeChangeProcessor.processChanges(tree,
-                json.getArray("changes"));
+                json.getArray("changes"), registry.getApplicationConfiguration()
+                        .isCompactChanges());
 
         if (!registry.getApplicationConfiguration().isProductionMode()) {
             try {
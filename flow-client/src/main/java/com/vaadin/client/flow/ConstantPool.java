@@ -18,6 +18,7 @@ package com.vaadin.client.flow;
 import com.vaadin.client.flow.collection.JsCollections;
 import com.vaadin.client.flow.collection.JsMap;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonType;
 import elemental.json.JsonValue;
@@ -50,6 +51,24 @@ public class ConstantPool {
         }
     }
 
+    /**
+     * Removes constants that the server has evicted from its constant pool.
+     * The server sends an evicted constant again if it is needed later on.
+     *
+     * @param keys
+     *            a JSON array of the keys of the evicted constants, not
+     *            <code>null</code>
+     */
+    public void evict(JsonArray keys) {
+        assert keys != null;
+
+        for (int i = 0; i < keys.length(); i++) {
+            String key = keys.getString(i);
+            assert constants.has(key);
+            constants.delete(key);
+        }
+    }
+
     /**
      * Checks whether this constant pool contains a value for the given key.
      *
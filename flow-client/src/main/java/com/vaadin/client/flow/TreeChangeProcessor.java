@@ -51,6 +51,25 @@ public class TreeChangeProcessor {
      */
     public static JsSet<StateNode> processChanges(StateTree tree,
             JsonArray changes) {
+        return processChanges(tree, changes, false);
+    }
+
+    /**
+     * Update a state tree based on a JSON array of changes in either the
+     * regular or the compact encoding.
+     *
+     * @param tree
+     *            the tree to update
+     * @param changes
+     *            the JSON array of changes
+     * @param compact
+     *            <code>true</code> if the changes are encoded as positional
+     *            arrays, <code>false</code> if they are encoded as JSON
+     *            objects
+     * @return a set of updated nodes addressed by the {@code changes}
+     */
+    public static JsSet<StateNode> processChanges(StateTree tree,
+            JsonArray changes, boolean compact) {
         assert !tree
                 .isUpdateInProgress() : "Previous tree change processing has not completed";
         try {
@@ -61,22 +80,32 @@ public class TreeChangeProcessor {
 
             // Attach all nodes before doing anything else
             for (int i = 0; i < length; i++) {
-                JsonObject change = changes.getObject(i);
-                if (isAttach(change)) {
-                    int nodeId = (int) change
-                            .getNumber(JsonConstants.CHANGE_NODE);
-
-                    StateNode node = new StateNode(nodeId, tree);
-                    tree.registerNode(node);
-                    nodes.add(node);
+                if (compact) {
+                    JsonArray change = changes.getArray(i);
+                    if (isCompactAttach(change)) {
+                        attachNode(tree, (int) change.getNumber(1), nodes);
+                    }
+                } else {
+                    JsonObject change = changes.getObject(i);
+                    if (isAttach(change)) {
+                        attachNode(tree, (int) change
+                                .getNumber(JsonConstants.CHANGE_NODE), nodes);
+                    }
                 }
             }
 
             // Then process all non-attach changes
             for (int i = 0; i < length; i++) {
-                JsonObject change = changes.getObject(i);
-                if (!isAttach(change)) {
-                    nodes.add(processChange(tree, change));
+                if (compact) {
+                    JsonArray change = changes.getArray(i);
+                    if (!isCompactAttach(change)) {
+                        nodes.add(processCompactChange(tree, change));
+                    }
+                } else {
+                    JsonObject change = changes.getObject(i);
+                    if (!isAttach(change)) {
+                        nodes.add(processChange(tree, change));
+                    }
                 }
             }
             return nodes;
@@ -86,11 +115,22 @@ public class TreeChangeProcessor {
 
     }
 
+    private static void attachNode(StateTree tree, int nodeId,
+            JsSet<StateNode> nodes) {
+        StateNode node = new StateNode(nodeId, tree);
+        tree.registerNode(node);
+        nodes.add(node);
+    }
+
     private static boolean isAttach(JsonObject change) {
         return JsonConstants.CHANGE_TYPE_ATTACH
                 .equals(change.getString(JsonConstants.CHANGE_TYPE));
     }
 
+    private static boolean isCompactAttach(JsonArray change) {
+        return (int) change.getNumber(0) == JsonConstants.CHANGE_CODE_ATTACH;
+    }
+
     /**
      * Update a state tree based on a JSON change. This method is public for
      * testing purposes.
@@ -133,6 +173,111 @@ public class TreeChangeProcessor {
         return node;
     }
 
+    /**
+     * Update a state tree based on a JSON change in the compact encoding. This
+     * method is public for testing purposes.
+     *
+     * @param tree
+     *            the tree to update
+     * @param change
+     *            the compact JSON change
+     * @return the updated node addressed by the provided {@code change}
+     */
+    public static StateNode processCompactChange(StateTree tree,
+            JsonArray change) {
+        int code = (int) change.getNumber(0);
+        int nodeId = (int) change.getNumber(1);
+
+        StateNode node = tree.getNode(nodeId);
+        assert node != null;
+
+        switch (code) {
+        case JsonConstants.CHANGE_CODE_NOOP:
+            if (change.getBoolean(3)) {
+                node.getList((int) change.getNumber(2));
+            } else {
+                node.getMap((int) change.getNumber(2));
+            }
+            break;
+        case JsonConstants.CHANGE_CODE_SPLICE:
+        case JsonConstants.CHANGE_CODE_SPLICE_NODES:
+            processCompactSpliceChange(change, node,
+                    code == JsonConstants.CHANGE_CODE_SPLICE_NODES);
+            break;
+        case JsonConstants.CHANGE_CODE_PUT:
+            findCompactProperty(change, node).setValue(
+                    ClientJsonCodec.decodeWithoutTypeInfo(change.get(4)));
+            break;
+        case JsonConstants.CHANGE_CODE_PUT_NODE:
+            setNodeValue(findCompactProperty(change, node), node,
+                    (int) change.getNumber(4));
+            break;
+        case JsonConstants.CHANGE_CODE_REMOVE:
+            findCompactProperty(change, node).removeValue();
+            break;
+        case JsonConstants.CHANGE_CODE_DETACH:
+            processDetachChange(node);
+            break;
+        case JsonConstants.CHANGE_CODE_CLEAR:
+            node.getList((int) change.getNumber(2)).clear();
+            break;
+        default:
+            assert false : "Unsupported change type code: " + code;
+        }
+        return node;
+    }
+
+    private static MapProperty findCompactProperty(JsonArray change,
+            StateNode node) {
+        NodeMap map = node.getMap((int) change.getNumber(2));
+        return map.getProperty(change.getString(3));
+    }
+
+    private static void processCompactSpliceChange(JsonArray change,
+            StateNode node, boolean nodeValues) {
+        NodeList list = node.getList((int) change.getNumber(2));
+
+        int index = (int) change.getNumber(3);
+        int remove = (int) change.getNumber(4);
+
+        if (change.length() < 6) {
+            list.splice(index, remove);
+        } else if (nodeValues) {
+            spliceNodes(list, node, index, remove, change.getArray(5));
+        } else {
+            list.splice(index, remove,
+                    ClientJsonCodec.jsonArrayAsJsArray(change.getArray(5)));
+        }
+    }
+
+    private static void setNodeValue(MapProperty property, StateNode node,
+            int childId) {
+        StateNode child = node.getTree().getNode(childId);
+        assert child != null;
+        child.setParent(node);
+
+        property.setValue(child);
+    }
+
+    private static void spliceNodes(NodeList list, StateNode node, int index,
+            int remove, JsonArray addNodes) {
+        int length = addNodes.length();
+
+        JsArray<StateNode> add = JsCollections.array();
+
+        StateTree tree = node.getTree();
+        for (int i = 0; i < length; i++) {
+            int childId = (int) addNodes.getNumber(i);
+            StateNode child = tree.getNode(childId);
+            assert child != null : "No child node found with id " + childId;
+            child.setParent(node);
+
+            add.set(i, child);
+        }
+
+        list.splice(index, remove, add);
+    }
+
     private static void processDetachChange(StateNode node) {
         node.getTree().unregisterNode(node);
         node.setParent(null);
@@ -160,11 +305,7 @@ public class TreeChangeProcessor {
         } else if (change.hasKey(JsonConstants.CHANGE_PUT_NODE_VALUE)) {
             int childId = (int) change
                     .getNumber(JsonConstants.CHANGE_PUT_NODE_VALUE);
-            StateNode child = node.getTree().getNode(childId);
-            assert child != null;
-            child.setParent(node);
-
-            property.setValue(child);
+            setNodeValue(property, node, childId);
         } else {
             assert false : "Change should have either value or nodeValue property: "
                     + WidgetUtil.stringify(change);
@@ -208,21 +349,7 @@ public class TreeChangeProcessor {
         } else if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES)) {
             JsonArray addNodes = change
                     .getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES);
-            int length = addNodes.length();
-
-            JsArray<StateNode> add = JsCollections.array();
-
-            StateTree tree = node.getTree();
-            for (int i = 0; i < length; i++) {
-                int childId = (int) addNodes.getNumber(i);
-                StateNode child = tree.getNode(childId);
-                assert child != null : "No child node found with id " + childId;
-                child.setParent(node);
-
-                add.set(i, child);
-            }
-
-            list.splice(index, remove, add);
+            spliceNodes(list, node, index, remove, addNodes);
         } else {
             list.splice(index, remove);
         }
@@ -316,6 +316,44 @@ public class TreeChangeProcessorTest {
         Assert.assertNull(child.getParent());
     }
 
+    @Test
+    public void testCompactPutChange() {
+        JsonArray change = toArray(Json.create(JsonConstants.CHANGE_CODE_PUT),
+                Json.create(rootId), Json.create(ns), Json.create(myKey),
+                Json.create(myValue));
+
+        StateNode node = TreeChangeProcessor.processCompactChange(tree,
+                change);
+
+        Object value = tree.getRootNode().getMap(ns).getProperty(myKey)
+                .getValue();
+
+        Assert.assertEquals(myValue, value);
+        Assert.assertEquals(tree.getRootNode(), node);
+    }
+
+    @Test
+    public void testCompactAttachNodeBeforeSplice() {
+        int nodeId = 2;
+        JsonArray changes = toArray(
+                toArray(Json.create(JsonConstants.CHANGE_CODE_SPLICE_NODES),
+                        Json.create(rootId), Json.create(ns), Json.create(0),
+                        Json.create(0), toArray(Json.create(nodeId))),
+                toArray(Json.create(JsonConstants.CHANGE_CODE_ATTACH),
+                        Json.create(nodeId)));
+
+        JsSet<StateNode> updatedNodes = TreeChangeProcessor.processChanges(tree,
+                changes, true);
+
+        StateNode child = tree.getNode(nodeId);
+        NodeList list = tree.getRootNode().getList(ns);
+        Assert.assertEquals(1, list.length());
+        Assert.assertSame(child, list.get(0));
+        Assert.assertEquals(tree.getRootNode(), child.getParent());
+
+        Assert.assertEquals(2, updatedNodes.size());
+    }
+
     private static JsonArray toArray(JsonValue... changes) {
         return Arrays.stream(changes).collect(JsonUtils.asArray());
     }
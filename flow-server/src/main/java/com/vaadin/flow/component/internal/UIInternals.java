@@ -42,6 +42,7 @@ import com.vaadin.flow.component.page.Page;
 import com.vaadin.flow.component.page.Page.ExecutionCanceler;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.dom.impl.BasicElementStateProvider;
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.AnnotationReader;
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.ReflectTools;
@@ -377,6 +378,21 @@ public class UIInternals implements Serializable {
         }
 
         if (session != null) {
+            VaadinService service = session.getService();
+            DeploymentConfiguration configuration = service == null ? null
+                    : service.getDeploymentConfiguration();
+            if (configuration != null) {
+                stateTree.setIndexedDirtyNodeTracking(
+                        configuration.useIndexedDirtyNodeTracking());
+                stateTree.setListChangeCoalescing(
+                        configuration.useListChangeCoalescing());
+                constantPool
+                        .setMaxSize(configuration.getConstantPoolMaxSize());
+                if (configuration.useSharedConstantPool()) {
+                    constantPool.setSharedConstantPool(
+                            service.getSharedConstantPool());
+                }
+            }
             ComponentUtil.onComponentAttach(ui, true);
         }
     }
@@ -302,4 +302,275 @@ public interface DeploymentConfiguration extends Serializable {
         return getBooleanProperty(
                 Constants.DISABLE_AUTOMATIC_SERVLET_REGISTRATION, false);
     }
+
+    /**
+     * Determines if state trees should track dirty nodes using a bit set
+     * indexed by node id and an ordered queue instead of hash based sets.
+     *
+     * User can enable the indexed tracking by setting the
+     * {@link Constants#USE_INDEXED_DIRTY_NODE_TRACKING} property to
+     * {@code true}.
+     *
+     * @return {@code true} if dirty nodes should be tracked using the indexed
+     *         structure
+     * @see com.vaadin.flow.internal.StateTree#setIndexedDirtyNodeTracking(boolean)
+     */
+    default boolean useIndexedDirtyNodeTracking() {
+        return getBooleanProperty(Constants.USE_INDEXED_DIRTY_NODE_TRACKING,
+                false);
+    }
+
+    /**
+     * Determines if consecutive changes to node lists should be coalesced into
+     * as few splice changes as possible before they are sent to the client.
+     *
+     * User can enable the coalescing by setting the
+     * {@link Constants#COALESCE_LIST_CHANGES} property to {@code true}.
+     *
+     * @return {@code true} if list changes should be coalesced
+     * @see com.vaadin.flow.internal.StateTree#setListChangeCoalescing(boolean)
+     */
+    default boolean useListChangeCoalescing() {
+        return getBooleanProperty(Constants.COALESCE_LIST_CHANGES, false);
+    }
+
+    /**
+     * Gets the maximum number of constants that the constant pool of each UI
+     * keeps track of before evicting constants that are no longer used.
+     *
+     * User can bound the constant pool by setting the
+     * {@link Constants#CONSTANT_POOL_MAX_SIZE} property to a positive value.
+     *
+     * @return the maximum number of constants per UI, or <code>0</code> if the
+     *         constant pools are not bounded
+     * @see com.vaadin.flow.internal.ConstantPool#setMaxSize(int)
+     */
+    default int getConstantPoolMaxSize() {
+        return getApplicationOrSystemProperty(Constants.CONSTANT_POOL_MAX_SIZE,
+                Integer.valueOf(0), Integer::valueOf).intValue();
+    }
+
+    /**
+     * Determines if constants used by many UIs should be shared through an
+     * application wide constant table that the bootstrap page loads as a
+     * cacheable resource.
+     *
+     * User can enable the shared constant table by setting the
+     * {@link Constants#USE_SHARED_CONSTANT_POOL} property to {@code true}.
+     *
+     * @return {@code true} if an application wide constant table should be
+     *         used
+     * @see com.vaadin.flow.internal.SharedConstantPool
+     */
+    default boolean useSharedConstantPool() {
+        return getBooleanProperty(Constants.USE_SHARED_CONSTANT_POOL, false);
+    }
+
+    /**
+     * Determines if state tree changes should be sent to the client in the
+     * compact encoding, i.e. as positional arrays with numeric type codes.
+     *
+     * User can enable the compact encoding by setting the
+     * {@link Constants#COMPACT_CHANGE_ENCODING} property to {@code true}.
+     *
+     * @return {@code true} if the compact change encoding should be used
+     * @see com.vaadin.flow.internal.change.NodeChange#toCompactJson(com.vaadin.flow.internal.ConstantPool)
+     */
+    default boolean useCompactChangeEncoding() {
+        return getBooleanProperty(Constants.COMPACT_CHANGE_ENCODING, false);
+    }
+
+    /**
+     * Determines if the property synchronizations received from the client in
+     * one message should be handled in batches per node. In batch mode, only
+     * the last received value of each property is applied and a single
+     * property change event is fired for it.
+     *
+     * User can enable the batching by setting the
+     * {@link Constants#BATCH_MAP_SYNC} property to {@code true}.
+     *
+     * @return {@code true} if property synchronizations should be batched
+     * @see com.vaadin.flow.server.communication.rpc.MapSyncRpcHandler#handleBatch(com.vaadin.flow.component.UI, int, java.util.List)
+     */
+    default boolean useMapSyncBatching() {
+        return getBooleanProperty(Constants.BATCH_MAP_SYNC, false);
+    }
+
+    /**
+     * Determines if the tasks enqueued with
+     * {@link com.vaadin.flow.server.VaadinSession#access(com.vaadin.flow.server.Command)}
+     * should be run by a dedicated executor. In this mode, threads releasing
+     * the session lock neither run the pending tasks nor push changes to the
+     * client, but schedule the session to be drained by the executor.
+     *
+     * User can enable the executor by setting the
+     * {@link Constants#SESSION_ACCESS_EXECUTOR} property to {@code true}.
+     *
+     * @return {@code true} if a session access executor should be used
+     * @see com.vaadin.flow.server.SessionAccessExecutor
+     */
+    default boolean useSessionAccessExecutor() {
+        return getBooleanProperty(Constants.SESSION_ACCESS_EXECUTOR, false);
+    }
+
+    /**
+     * Determines if virtual threads should be used when the JVM supports them.
+     * If supported, the tasks enqueued with
+     * {@link com.vaadin.flow.server.VaadinSession#access(com.vaadin.flow.server.Command)}
+     * are run by a session access executor that starts a virtual thread for
+     * each drained session. Otherwise, a session access executor using
+     * platform threads is used as if {@link #useSessionAccessExecutor()} was
+     * enabled.
+     *
+     * User can enable virtual threads by setting the
+     * {@link Constants#VIRTUAL_THREADS} property to {@code true}.
+     *
+     * @return {@code true} if virtual threads should be used when available
+     * @see #useSessionAccessExecutor()
+     * @see com.vaadin.flow.internal.VirtualThreads
+     */
+    default boolean useVirtualThreads() {
+        return getBooleanProperty(Constants.VIRTUAL_THREADS, false);
+    }
+
+    /**
+     * Gets the minimum time between automatic pushes to the same UI. Changes
+     * made during the window are pushed together when the window has passed.
+     *
+     * User can enable push coalescing by setting the
+     * {@link Constants#PUSH_COALESCING_WINDOW} property to a positive number
+     * of milliseconds.
+     *
+     * @return the push coalescing window in milliseconds, or <code>0</code> if
+     *         changes are pushed immediately
+     * @see com.vaadin.flow.server.communication.PushCoalescer
+     */
+    default int getPushCoalescingWindow() {
+        return getApplicationOrSystemProperty(Constants.PUSH_COALESCING_WINDOW,
+                Integer.valueOf(0), Integer::valueOf).intValue();
+    }
+
+    /**
+     * Determines if inactive UIs and sessions should be closed by a background
+     * thread running at the heartbeat interval instead of at the end of every
+     * request.
+     *
+     * User can enable the background cleanup by setting the
+     * {@link Constants#BACKGROUND_SESSION_CLEANUP} property to {@code true}.
+     *
+     * @return {@code true} if sessions should be cleaned up in the background
+     * @see com.vaadin.flow.server.SessionReaper
+     */
+    default boolean useBackgroundSessionCleanup() {
+        return getBooleanProperty(Constants.BACKGROUND_SESSION_CLEANUP, false);
+    }
+
+    /**
+     * Determines if UIs should be closed by a background timing wheel as soon
+     * as their heartbeat timeout expires, instead of when the next request to
+     * their session ends. Has no effect if heartbeats are disabled.
+     *
+     * User can enable the timing wheel by setting the
+     * {@link Constants#HEARTBEAT_EXPIRY_WHEEL} property to {@code true}.
+     *
+     * @return {@code true} if UIs should be expired by a timing wheel
+     * @see com.vaadin.flow.server.HeartbeatExpiryWheel
+     */
+    default boolean useHeartbeatExpiryWheel() {
+        return getBooleanProperty(Constants.HEARTBEAT_EXPIRY_WHEEL, false);
+    }
+
+    /**
+     * Gets the maximum number of pushed messages per push connection that may
+     * be waiting to be written to the client. When the limit is reached, new
+     * changes are not pushed right away but merged into the next message that
+     * fits.
+     *
+     * User can limit the outbox by setting the
+     * {@link Constants#PUSH_OUTBOX_SIZE} property to a positive value.
+     *
+     * @return the maximum number of pending messages per connection, or
+     *         <code>0</code> if not limited
+     * @see com.vaadin.flow.server.communication.AtmospherePushConnection#getOutboxDepth()
+     */
+    default int getPushOutboxSize() {
+        return getApplicationOrSystemProperty(Constants.PUSH_OUTBOX_SIZE,
+                Integer.valueOf(0), Integer::valueOf).intValue();
+    }
+
+    /**
+     * Gets the maximum length, in characters, of a message received through a
+     * websocket push connection. Longer messages are rejected and the
+     * connection is closed without reading the message.
+     *
+     * User can change the limit by setting the
+     * {@link Constants#PUSH_MAX_MESSAGE_LENGTH} property.
+     *
+     * @return the maximum message length in characters
+     * @see Constants#DEFAULT_PUSH_MAX_MESSAGE_LENGTH
+     */
+    default int getPushMaxMessageLength() {
+        return getApplicationOrSystemProperty(
+                Constants.PUSH_MAX_MESSAGE_LENGTH,
+                Integer.valueOf(Constants.DEFAULT_PUSH_MAX_MESSAGE_LENGTH),
+                Integer::valueOf).intValue();
+    }
+
+    /**
+     * Gets the size in bytes above which UIDL responses are gzip compressed
+     * for browsers that accept it. Smaller responses are sent as is.
+     *
+     * User can enable compression by setting the
+     * {@link Constants#UIDL_COMPRESSION_THRESHOLD} property to a positive
+     * value.
+     *
+     * @return the compression threshold in bytes, or <code>0</code> if
+     *         responses are not compressed
+     */
+    default int getUidlCompressionThreshold() {
+        return getApplicationOrSystemProperty(
+                Constants.UIDL_COMPRESSION_THRESHOLD, Integer.valueOf(0),
+                Integer::valueOf).intValue();
+    }
+
+    /**
+     * Gets the time in milliseconds that asynchronous changes are collected
+     * before they are pushed as one message through a long polling connection.
+     * Since the client has to reconnect after every long polling message,
+     * batching reduces the number of reconnects when changes are pushed in
+     * quick succession.
+     *
+     * User can enable batching by setting the
+     * {@link Constants#LONG_POLLING_BATCHING_WINDOW} property to a positive
+     * value.
+     *
+     * @return the batching window in milliseconds, or <code>0</code> if
+     *         changes are pushed right away
+     * @see com.vaadin.flow.server.communication.AtmospherePushConnection#getReconnectsPerMinute()
+     */
+    default int getLongPollingBatchingWindow() {
+        return getApplicationOrSystemProperty(
+                Constants.LONG_POLLING_BATCHING_WINDOW, Integer.valueOf(0),
+                Integer::valueOf).intValue();
+    }
+
+    /**
+     * Gets the maximum total size in bytes of the static resources that the
+     * static file server keeps in memory, together with their ETags and
+     * precompressed variants. In development mode, cached resources are
+     * evicted when their files are modified.
+     *
+     * User can enable the cache by setting the
+     * {@link Constants#STATIC_RESOURCE_CACHE_SIZE} property to a positive
+     * value.
+     *
+     * @return the maximum cache size in bytes, or <code>0</code> if resources
+     *         are not cached
+     * @see com.vaadin.flow.server.StaticResourceCache
+     */
+    default int getStaticResourceCacheSize() {
+        return getApplicationOrSystemProperty(
+                Constants.STATIC_RESOURCE_CACHE_SIZE, Integer.valueOf(0),
+                Integer::valueOf).intValue();
+    }
 }
@@ -16,25 +16,57 @@
 package com.vaadin.flow.internal;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
  * Keeps track of {@link ConstantPoolKey} values that have already been sent to
  * the client.
+ * <p>
+ * The pool can optionally be bounded using {@link #setMaxSize(int)}. When a
+ * bounded pool grows too large, the least recently used constants that are no
+ * longer referenced are evicted and the client is told to evict them as well.
+ * An evicted constant is sent again if it is used after being evicted.
  *
  * @author Vaadin Ltd
  * @since 1.0
  */
 public class ConstantPool implements Serializable {
 
-    private Set<String> knownValues = new HashSet<>();
+    // Access ordered so that iteration starts from the least recently used id
+    private Set<String> knownValues = Collections
+            .newSetFromMap(new LinkedHashMap<>(16, 0.75f, true));
 
     private Set<ConstantPoolKey> newKeys = new HashSet<>();
 
+    private List<String> evictedIds = new ArrayList<>();
+
+    private int maxSize;
+
+    private int evictionThreshold;
+
+    // Ids of constants that the client has received through a shared snapshot
+    private Set<String> sharedIds = Collections.emptySet();
+
+    // Not serialized since it's shared by all sessions of the service
+    private transient SharedConstantPool sharedConstantPool;
+
+    /*
+     * Ids already recorded in the shared pool, so that each UI is counted only
+     * once per constant even if the constant is sent again after eviction
+     */
+    private transient Set<String> sharedRecordedIds;
+
     /**
      * Gets the id of a given constant, registering the constant with this
      * constant pool if it hasn't already been encountered.
@@ -50,6 +82,11 @@ public class ConstantPool implements Serializable {
 
         String id = constant.getId();
 
+        if (sharedIds.contains(id)) {
+            return id;
+        }
+
+        // Also marks an already known id as recently used
         if (knownValues.add(id)) {
             newKeys.add(constant);
         }
@@ -77,10 +114,158 @@ public class ConstantPool implements Serializable {
     public JsonObject dumpConstants() {
         JsonObject json = Json.createObject();
 
-        newKeys.forEach(key -> key.export(json));
+        // Evicted constants may have to be exported again
+        boolean retainValues = maxSize > 0;
+        newKeys.forEach(key -> key.export(json, retainValues));
         newKeys.clear();
 
+        if (sharedConstantPool != null) {
+            recordShared(json);
+        }
+
         return json;
     }
 
+    private void recordShared(JsonObject json) {
+        if (sharedConstantPool.getSnapshot() != null) {
+            // Nothing more is recorded once warm up is over
+            sharedRecordedIds = null;
+            return;
+        }
+        if (sharedRecordedIds == null) {
+            sharedRecordedIds = new HashSet<>();
+        }
+        for (String id : json.keys()) {
+            if (sharedRecordedIds.add(id)) {
+                sharedConstantPool.record(id, json.get(id));
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum number of constants to keep track of. A value of
+     * <code>0</code> means that the pool is not bounded.
+     *
+     * @param maxSize
+     *            the maximum number of constants, or <code>0</code> for no
+     *            limit
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(
+                    "Max size cannot be negative: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        evictionThreshold = maxSize;
+    }
+
+    /**
+     * Gets the maximum number of constants to keep track of.
+     *
+     * @return the maximum number of constants, or <code>0</code> if the pool is
+     *         not bounded
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Evicts the least recently used constants that are not referenced any
+     * more if this pool has grown beyond its maximum size. Nothing is done for
+     * pools without a maximum size.
+     * <p>
+     * Constants that are still referenced are never evicted since the client
+     * might need them later on. A constant counts as referenced if any
+     * {@link com.vaadin.flow.internal.nodefeature.NodeFeature} in the state
+     * tree reports its id through
+     * {@link com.vaadin.flow.internal.nodefeature.NodeFeature#forEachConstantId(java.util.function.Consumer)}. The referenced ids are only computed when
+     * eviction is actually needed.
+     *
+     * @see #dumpEvictedConstants()
+     *
+     * @param referencedIds
+     *            a supplier of the ids of all constants that are currently
+     *            referenced, not <code>null</code>
+     */
+    public void evictConstants(Supplier<Set<String>> referencedIds) {
+        assert referencedIds != null;
+
+        if (maxSize == 0 || knownValues.size() <= evictionThreshold) {
+            return;
+        }
+
+        Set<String> referenced = referencedIds.get();
+        newKeys.forEach(key -> referenced.add(key.getId()));
+
+        // Evict down to a low water mark to avoid evicting for every response
+        int targetSize = maxSize - maxSize / 4;
+        Iterator<String> iterator = knownValues.iterator();
+        while (knownValues.size() > targetSize && iterator.hasNext()) {
+            String id = iterator.next();
+            if (!referenced.contains(id)) {
+                iterator.remove();
+                evictedIds.add(id);
+            }
+        }
+
+        /*
+         * If most constants are in use, don't walk the references again until
+         * the pool has grown considerably.
+         */
+        evictionThreshold = Math.max(maxSize,
+                knownValues.size() + maxSize / 4);
+    }
+
+    /**
+     * Checks if any constants have been evicted from this constant pool since
+     * the last time {@link #dumpEvictedConstants()} was called.
+     *
+     * @return <code>true</code> if there are evicted constants,
+     *         <code>false</code> otherwise
+     */
+    public boolean hasEvictedConstants() {
+        return !evictedIds.isEmpty();
+    }
+
+    /**
+     * Encodes the ids of all constants evicted since the last invocation to a
+     * JSON array that tells the client to evict the same constants.
+     *
+     * @return a JSON array of evicted constant ids
+     */
+    public JsonArray dumpEvictedConstants() {
+        JsonArray json = Json.createArray();
+
+        evictedIds.forEach(id -> json.set(json.length(), id));
+        evictedIds.clear();
+
+        return json;
+    }
+
+    /**
+     * Sets the application wide shared constant pool that constants sent to
+     * the client are recorded in. Each constant is recorded only once by this
+     * pool, even if it's sent to the client again after being evicted.
+     *
+     * @param sharedConstantPool
+     *            the shared constant pool to record constants in, or
+     *            <code>null</code> to not record constants
+     */
+    public void setSharedConstantPool(SharedConstantPool sharedConstantPool) {
+        this.sharedConstantPool = sharedConstantPool;
+    }
+
+    /**
+     * Sets the ids of constants that the client has received through a shared
+     * constant snapshot. These constants are never sent to the client by this
+     * pool.
+     *
+     * @param sharedIds
+     *            the ids of the constants that the client already has, not
+     *            <code>null</code>
+     */
+    public void setSharedConstants(Set<String> sharedIds) {
+        assert sharedIds != null;
+        this.sharedIds = sharedIds;
+    }
 }
@@ -17,9 +17,9 @@ package com.vaadin.flow.internal;
 
 import java.io.Serializable;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
 
@@ -36,7 +36,13 @@ import elemental.json.JsonValue;
  * @since 1.0
  */
 public class ConstantPoolKey implements Serializable {
-    // Only stored until delivered to the client
+    private static final long PRIME_1 = 0x9E3779B97F4A7C15L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+    /*
+     * Only stored until delivered to the client, unless a bounded constant
+     * pool needs to be able to send the value again after evicting it
+     */
     private JsonValue json;
     private final String id;
 
@@ -74,34 +80,119 @@ public class ConstantPoolKey implements Serializable {
      *            <code>null</code>
      */
     public void export(JsonObject clientConstantPoolUpdate) {
+        export(clientConstantPoolUpdate, false);
+    }
+
+    /**
+     * Exports the this key into a JSON object to send to the client.
+     *
+     * @param clientConstantPoolUpdate
+     *            the constant pool update that is to be sent to the client, not
+     *            <code>null</code>
+     * @param retainValue
+     *            <code>true</code> to keep the value so that it can be exported
+     *            again after being evicted from a bounded constant pool,
+     *            <code>false</code> to release it
+     */
+    void export(JsonObject clientConstantPoolUpdate, boolean retainValue) {
         assert json != null : "Process can only be called once";
         assert id.equals(calculateHash(json)) : "Json value has been changed";
 
         clientConstantPoolUpdate.put(id, json);
 
-        json = null;
+        if (!retainValue) {
+            json = null;
+        }
     }
 
     /**
-     * Calculates the key of a JSON value by Base 64 encoding the first 64 bits
-     * of the SHA-256 digest of the JSON's string representation.
+     * Calculates the key of a JSON value by Base 64 encoding a 64 bit hash of
+     * the JSON structure.
      *
      * @param json
      *            the JSON to get a hash of, not <code>null</code>
      * @return the key uniquely identifying the given JSON value
      */
-    private static String calculateHash(JsonValue json) {
-        byte[] digest = MessageDigestUtil.sha256(json.toJson());
-
+    static String calculateHash(JsonValue json) {
         /*
-         * Only use first 64 bits to keep id string short (1 in 100 000 000
-         * collision risk with 500 000 items). 64 bits base64 -> 11 ASCII chars
+         * A non-cryptographic hash is enough since constants are defined by
+         * the application rather than by the client. 64 bits keeps the id
+         * string short (1 in 100 000 000 collision risk with 500 000 items).
+         * 64 bits base64 -> 11 ASCII chars
          */
-        ByteBuffer truncatedDigest = ByteBuffer.wrap(digest, 0, 8);
+        long hash = finish(hash(PRIME_2, json));
+
+        return Base64.getEncoder().encodeToString(
+                ByteBuffer.allocate(Long.BYTES).putLong(hash).array());
+    }
+
+    /**
+     * Walks the JSON structure and mixes all values into the hash, without
+     * serializing the structure to a string.
+     */
+    private static long hash(long hash, JsonValue json) {
+        switch (json.getType()) {
+        case OBJECT:
+            JsonObject object = (JsonObject) json;
+            String[] keys = object.keys();
+            hash = mix(hash, 'o' + ((long) keys.length << 8));
+            for (String key : keys) {
+                hash = hashString(hash, key);
+                hash = hash(hash, object.get(key));
+            }
+            return hash;
+        case ARRAY:
+            JsonArray array = (JsonArray) json;
+            int length = array.length();
+            hash = mix(hash, 'a' + ((long) length << 8));
+            for (int i = 0; i < length; i++) {
+                hash = hash(hash, array.get(i));
+            }
+            return hash;
+        case STRING:
+            return hashString(mix(hash, 's'), json.asString());
+        case NUMBER:
+            return mix(mix(hash, 'n'),
+                    Double.doubleToLongBits(json.asNumber()));
+        case BOOLEAN:
+            return mix(hash, json.asBoolean() ? 't' : 'f');
+        default:
+            return mix(hash, 'z');
+        }
+    }
 
-        ByteBuffer base64Bytes = Base64.getEncoder().encode(truncatedDigest);
+    private static long hashString(long hash, String string) {
+        int length = string.length();
+        hash = mix(hash, length);
+        int i = 0;
+        // Four chars at a time
+        for (; i + 3 < length; i += 4) {
+            hash = mix(hash,
+                    string.charAt(i) | (long) string.charAt(i + 1) << 16
+                            | (long) string.charAt(i + 2) << 32
+                            | (long) string.charAt(i + 3) << 48);
+        }
+        for (; i < length; i++) {
+            hash = mix(hash, string.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        value *= PRIME_2;
+        value = Long.rotateLeft(value, 31);
+        value *= PRIME_1;
+        hash ^= value;
+        return Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_2;
+    }
 
-        return StandardCharsets.US_ASCII.decode(base64Bytes).toString();
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
     }
 
 }
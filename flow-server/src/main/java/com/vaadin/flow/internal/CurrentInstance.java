@@ -18,11 +18,13 @@ package com.vaadin.flow.internal;
 
 import java.io.Serializable;
 import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,7 +60,46 @@ public class CurrentInstance implements Serializable {
 
     private final WeakReference<Object> instance;
 
-    private static final ThreadLocal<Map<Class<?>, CurrentInstance>> instances = new ThreadLocal<>();
+    /*
+     * The map of each thread is unmodifiable and replaced as a whole whenever
+     * an instance is set, so that snapshots can be taken without copying.
+     */
+    private static final ThreadLocal<Snapshot> instances = new ThreadLocal<>();
+
+    /**
+     * Unmodifiable map of the current instances of a thread. Only created by
+     * this class around a map that is not referenced anywhere else, so an
+     * instance can be made current again without copying it.
+     */
+    private static final class Snapshot
+            extends AbstractMap<Class<?>, CurrentInstance>
+            implements Serializable {
+        private final Map<Class<?>, CurrentInstance> map;
+
+        private Snapshot(Map<Class<?>, CurrentInstance> map) {
+            this.map = Collections.unmodifiableMap(map);
+        }
+
+        @Override
+        public CurrentInstance get(Object key) {
+            return map.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public Set<Entry<Class<?>, CurrentInstance>> entrySet() {
+            return map.entrySet();
+        }
+    }
 
     private CurrentInstance(Object instance) {
         this.instance = new WeakReference<>(instance);
@@ -96,11 +137,7 @@ public class CurrentInstance implements Serializable {
                  * significantly increase the complexity of the code for
                  * maintaining a separate ReferenceQueue for each Thread.
                  */
-                removeStaleInstances(map);
-
-                if (map.isEmpty()) {
-                    instances.remove();
-                }
+                store(removeStaleInstances(map));
 
                 return null;
             }
@@ -110,9 +147,10 @@ public class CurrentInstance implements Serializable {
         }
     }
 
-    private static void removeStaleInstances(
+    private static Map<Class<?>, CurrentInstance> removeStaleInstances(
             Map<Class<?>, CurrentInstance> map) {
-        for (Iterator<Entry<Class<?>, CurrentInstance>> iterator = map
+        Map<Class<?>, CurrentInstance> result = new HashMap<>(map);
+        for (Iterator<Entry<Class<?>, CurrentInstance>> iterator = result
                 .entrySet().iterator(); iterator.hasNext();) {
             Entry<Class<?>, CurrentInstance> entry = iterator.next();
             Object instance = entry.getValue().instance.get();
@@ -123,6 +161,20 @@ public class CurrentInstance implements Serializable {
                         entry.getKey());
             }
         }
+        return result;
+    }
+
+    /**
+     * Makes the given map the current instances of this thread. The map is
+     * never modified after this, so it can be handed out as a snapshot of the
+     * current instances without copying it.
+     */
+    private static void store(Map<Class<?>, CurrentInstance> map) {
+        if (map.isEmpty()) {
+            instances.remove();
+        } else {
+            instances.set(new Snapshot(map));
+        }
     }
 
     /**
@@ -159,21 +211,18 @@ public class CurrentInstance implements Serializable {
         CurrentInstance previousInstance = null;
         if (instance == null) {
             // remove the instance
-            if (map != null) {
-                previousInstance = map.remove(type);
-                if (map.isEmpty()) {
-                    instances.remove();
-                    map = null;
-                }
+            if (map != null && map.containsKey(type)) {
+                Map<Class<?>, CurrentInstance> copy = new HashMap<>(map);
+                previousInstance = copy.remove(type);
+                store(copy);
             }
         } else {
             assert type.isInstance(instance) : "Invalid instance type";
-            if (map == null) {
-                map = new HashMap<>();
-                instances.set(map);
-            }
-
-            previousInstance = map.put(type, new CurrentInstance(instance));
+            Map<Class<?>, CurrentInstance> copy = map == null
+                    ? new HashMap<>()
+                    : new HashMap<>(map);
+            previousInstance = copy.put(type, new CurrentInstance(instance));
+            store(copy);
         }
         if (previousInstance == null) {
             previousInstance = CURRENT_INSTANCE_NULL;
@@ -196,16 +245,18 @@ public class CurrentInstance implements Serializable {
      * @param old
      *            A Class -&lt; CurrentInstance map to set as current instances
      */
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public static void restoreInstances(Map<Class<?>, CurrentInstance> old) {
-        boolean removeStale = false;
+        if (old.isEmpty()) {
+            return;
+        }
+        Map<Class<?>, CurrentInstance> map = instances.get();
+        Map<Class<?>, CurrentInstance> copy = map == null ? new HashMap<>()
+                : new HashMap<>(map);
         for (Entry<Class<?>, CurrentInstance> entry : old.entrySet()) {
-            Class c = entry.getKey();
+            Class<?> c = entry.getKey();
             CurrentInstance ci = entry.getValue();
             Object v = ci.instance.get();
-            if (v == null) {
-                removeStale = true;
-            } else if (v == NULL_OBJECT) {
+            if (v == null || v == NULL_OBJECT) {
                 /*
                  * NULL_OBJECT is used to identify objects that are null when
                  * #setCurrent(UI) or #setCurrent(VaadinSession) are called on a
@@ -221,46 +272,55 @@ public class CurrentInstance implements Serializable {
                  * This map will be restored after UI.accessSync(), which,
                  * unless it respects null values, will just leave the wrong UI
                  * instance registered.
+                 *
+                 * Instances that have been garbage collected are also cleared.
                  */
-                v = null;
+                copy.remove(c);
+            } else {
+                assert c.isInstance(v) : "Invalid instance type";
+                copy.put(c, ci);
             }
-            set(c, v);
-        }
-
-        if (removeStale) {
-            removeStaleInstances(old);
         }
+        store(copy);
     }
 
     /**
      * Gets the currently set instances so that they can later be restored using
-     * {@link #restoreInstances(Map)}.
+     * {@link #restoreInstances(Map)} or {@link #setInstances(Map)}.
+     * <p>
+     * The current instances are kept in an immutable map that is replaced
+     * whenever an instance is set, so the returned snapshot is not copied and
+     * is not affected by later changes. Since the map is not copied, it is
+     * unmodifiable and may also contain instances that have been garbage
+     * collected. Such instances are cleared when the snapshot is restored.
      *
-     * @return a map containing the current instances
+     * @return an unmodifiable map containing the current instances
      */
     public static Map<Class<?>, CurrentInstance> getInstances() {
-        Map<Class<?>, CurrentInstance> map = instances.get();
+        Snapshot map = instances.get();
         if (map == null) {
             return Collections.emptyMap();
+        }
+        return map;
+    }
+
+    /**
+     * Replaces all current instances with a snapshot previously returned by
+     * {@link #getInstances()}. Unlike {@link #restoreInstances(Map)}, instances
+     * that are not in the snapshot are cleared.
+     *
+     * @param snapshot
+     *            the instances to set as current instances, not
+     *            <code>null</code>
+     */
+    public static void setInstances(Map<Class<?>, CurrentInstance> snapshot) {
+        if (snapshot.isEmpty()) {
+            instances.remove();
+        } else if (snapshot instanceof Snapshot) {
+            instances.set((Snapshot) snapshot);
         } else {
-            Map<Class<?>, CurrentInstance> copy = new HashMap<>();
-            boolean removeStale = false;
-            for (Entry<Class<?>, CurrentInstance> entry : map.entrySet()) {
-                Class<?> c = entry.getKey();
-                CurrentInstance ci = entry.getValue();
-                if (ci.instance.get() == null) {
-                    removeStale = true;
-                } else {
-                    copy.put(c, ci);
-                }
-            }
-            if (removeStale) {
-                removeStaleInstances(map);
-                if (map.isEmpty()) {
-                    instances.remove();
-                }
-            }
-            return copy;
+            instances.remove();
+            restoreInstances(snapshot);
         }
     }
 
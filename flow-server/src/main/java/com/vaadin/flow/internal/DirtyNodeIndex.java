@@ -0,0 +1,179 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of the dirty nodes of a {@link StateTree} using a bit set
+ * indexed by node id together with an ordered queue of the marked nodes.
+ * <p>
+ * Nodes are kept in the order they were first marked as dirty, and a node that
+ * is already queued is not added again until the queue is drained. The
+ * internal arrays are reused between rounds so that tracking dirty nodes does
+ * not create any garbage in the steady state.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+class DirtyNodeIndex implements Serializable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * One bit per node id, set for nodes that are currently queued.
+     */
+    private long[] marked = new long[INITIAL_CAPACITY];
+
+    private StateNode[] queue = new StateNode[INITIAL_CAPACITY];
+
+    private StateNode[] spare;
+
+    private int size;
+
+    /**
+     * Number of queued nodes that had no id when they were added. Such nodes
+     * can't be looked up from {@link #marked}.
+     */
+    private int unidentifiedCount;
+
+    /**
+     * Adds a node to the end of the queue unless it's already queued.
+     *
+     * @param node
+     *            the node to add, not <code>null</code>
+     * @return <code>true</code> if the node was added, <code>false</code> if
+     *         it was already queued
+     */
+    boolean add(StateNode node) {
+        assert node != null;
+
+        int id = node.getId();
+        if (id > 0 && isMarked(id)) {
+            return false;
+        }
+        if (unidentifiedCount > 0 && indexOf(node) != -1) {
+            // Node got an id after it was queued, remember it from now on
+            if (id > 0) {
+                mark(id);
+            }
+            return false;
+        }
+
+        if (id > 0) {
+            mark(id);
+        } else {
+            unidentifiedCount++;
+        }
+
+        if (size == queue.length) {
+            queue = Arrays.copyOf(queue, size * 2);
+        }
+        queue[size++] = node;
+        return true;
+    }
+
+    /**
+     * Gets the number of queued nodes.
+     *
+     * @return the number of queued nodes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether there are no queued nodes.
+     *
+     * @return <code>true</code> if the queue is empty, otherwise
+     *         <code>false</code>
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the queued node at the given position.
+     *
+     * @param index
+     *            the position of the node in the queue
+     * @return the queued node
+     */
+    StateNode get(int index) {
+        assert index >= 0 && index < size;
+        return queue[index];
+    }
+
+    /**
+     * Empties the queue and passes all previously queued nodes to the given
+     * action, in the order they were added. Nodes that are added while the
+     * action runs are queued for the next round.
+     *
+     * @param action
+     *            the action to run for each drained node
+     */
+    void drain(Consumer<StateNode> action) {
+        StateNode[] drained = queue;
+        int drainedSize = size;
+
+        for (int i = 0; i < drainedSize; i++) {
+            int id = drained[i].getId();
+            if (id > 0) {
+                marked[id >>> 6] &= ~(1L << id);
+            }
+        }
+
+        queue = spare != null ? spare : new StateNode[drained.length];
+        spare = null;
+        size = 0;
+        unidentifiedCount = 0;
+
+        try {
+            for (int i = 0; i < drainedSize; i++) {
+                action.accept(drained[i]);
+            }
+        } finally {
+            // Release references and keep the array for the next round
+            Arrays.fill(drained, 0, drainedSize, null);
+            spare = drained;
+        }
+    }
+
+    private boolean isMarked(int id) {
+        int word = id >>> 6;
+        return word < marked.length && (marked[word] & (1L << id)) != 0;
+    }
+
+    private void mark(int id) {
+        int word = id >>> 6;
+        if (word >= marked.length) {
+            marked = Arrays.copyOf(marked,
+                    Math.max(word + 1, marked.length * 2));
+        }
+        marked[word] |= 1L << id;
+    }
+
+    private int indexOf(StateNode node) {
+        for (int i = 0; i < size; i++) {
+            if (queue[i] == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+
+/**
+ * Maps node ids to state nodes without boxing the ids.
+ * <p>
+ * The map uses open addressing with linear probing. Removed entries are
+ * compacted by shifting subsequent entries back so that freed slots are
+ * immediately reusable without leaving tombstones behind. The table is grown
+ * when it becomes too full and shrunk again when most of the nodes have been
+ * removed.
+ * <p>
+ * Only positive ids are supported.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+class NodeIdMap implements Serializable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Node ids, or <code>0</code> for free slots.
+     */
+    private int[] keys = new int[MIN_CAPACITY];
+
+    private StateNode[] values = new StateNode[MIN_CAPACITY];
+
+    private int size;
+
+    /**
+     * Gets the node registered for the given id.
+     *
+     * @param id
+     *            the node id
+     * @return the node, or <code>null</code> if no node is registered for the
+     *         id
+     */
+    StateNode get(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(id, mask); keys[slot] != 0; slot = (slot + 1)
+                & mask) {
+            if (keys[slot] == id) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a node is registered for the given id.
+     *
+     * @param id
+     *            the node id
+     * @return <code>true</code> if there is a node for the id, otherwise
+     *         <code>false</code>
+     */
+    boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Registers a node for the given id, replacing any previous node.
+     *
+     * @param id
+     *            the node id, must be positive
+     * @param node
+     *            the node to register, not <code>null</code>
+     * @return the previously registered node, or <code>null</code> if there
+     *         was none
+     */
+    StateNode put(int id, StateNode node) {
+        assert id > 0 : "Only positive ids are supported";
+        assert node != null;
+
+        int mask = keys.length - 1;
+        int slot = slot(id, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == id) {
+                StateNode previous = values[slot];
+                values[slot] = node;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = id;
+        values[slot] = node;
+        size++;
+
+        // Keep the load factor below 0.75
+        if (size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the node registered for the given id.
+     *
+     * @param id
+     *            the node id
+     * @return the removed node, or <code>null</code> if no node was registered
+     *         for the id
+     */
+    StateNode remove(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(id, mask);
+        while (keys[slot] != id) {
+            if (keys[slot] == 0) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        StateNode removed = values[slot];
+        shiftBack(slot, mask);
+        size--;
+
+        if (keys.length > MIN_CAPACITY && size * 8 < keys.length) {
+            resize(keys.length / 2);
+        }
+        return removed;
+    }
+
+    /**
+     * Gets the number of registered nodes.
+     *
+     * @return the number of registered nodes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Frees the given slot and moves back any following entries in the same
+     * probe sequence so that lookups don't need tombstones.
+     */
+    private void shiftBack(int freeSlot, int mask) {
+        int slot = freeSlot;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int key = keys[slot];
+            if (key == 0) {
+                break;
+            }
+            int home = slot(key, mask);
+            // Move the entry if its home slot isn't cyclically in
+            // (freeSlot, slot]
+            boolean movable = freeSlot <= slot
+                    ? home <= freeSlot || home > slot
+                    : home <= freeSlot && home > slot;
+            if (movable) {
+                keys[freeSlot] = key;
+                values[freeSlot] = values[slot];
+                freeSlot = slot;
+            }
+        }
+        keys[freeSlot] = 0;
+        values[freeSlot] = null;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        StateNode[] oldValues = values;
+
+        keys = new int[capacity];
+        values = new StateNode[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int slot = slot(key, mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slot(int id, int mask) {
+        // Ids are mostly sequential, which already spreads well with linear
+        // probing. Mixing still protects against clustered id patterns.
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -83,7 +83,7 @@ public class ReflectionCache<C, T> {
                  */
                 return (T) ((Function) valueProvider).apply(type);
             } finally {
-                CurrentInstance.restoreInstances(instances);
+                CurrentInstance.setInstances(instances);
             }
         };
     }
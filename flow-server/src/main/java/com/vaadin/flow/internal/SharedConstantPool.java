@@ -0,0 +1,222 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Application wide table of constants that are shared by the constant pools of
+ * all UIs.
+ * <p>
+ * Most constants, e.g. event settings of listener maps, are identical for
+ * every UI showing the same views. While warming up, this pool records the
+ * constants sent to the clients of all UIs. Once enough UIs have been
+ * bootstrapped, the constants that have been used by more than one UI are
+ * frozen into an immutable {@link Snapshot}. The snapshot is loaded by the
+ * bootstrap page as a cacheable resource, so that the constant pools of the
+ * UIs bootstrapped after that never need to send or track those constants.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class SharedConstantPool implements Serializable {
+
+    /**
+     * The number of bootstrapped UIs after which the snapshot is created.
+     */
+    static final int WARM_UP_UIS = 10;
+
+    /**
+     * The maximum number of different constants recorded while warming up.
+     */
+    static final int MAX_RECORDED_CONSTANTS = 2000;
+
+    /**
+     * Immutable set of shared constants.
+     */
+    public static final class Snapshot implements Serializable {
+        private final String hash;
+        private final Set<String> ids;
+        private final String json;
+
+        private Snapshot(Map<String, String> constants) {
+            JsonObject object = Json.createObject();
+            constants.forEach((id, value) -> {
+                JsonValue parsed = Json.instance().parse(value);
+                object.put(id, parsed);
+            });
+            json = object.toJson();
+            ids = Collections
+                    .unmodifiableSet(new HashSet<>(constants.keySet()));
+
+            byte[] digest = MessageDigestUtil.sha256(json);
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                builder.append(String.format("%02x",
+                        Integer.valueOf(digest[i] & 0xff)));
+            }
+            hash = builder.toString();
+        }
+
+        /**
+         * Gets a hash that identifies the contents of this snapshot.
+         *
+         * @return the content hash, not <code>null</code>
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * Gets the ids of the constants in this snapshot.
+         *
+         * @return an unmodifiable set of constant ids, not <code>null</code>
+         */
+        public Set<String> getIds() {
+            return ids;
+        }
+
+        /**
+         * Gets the constants of this snapshot encoded as a JSON object mapping
+         * constant ids to constant values.
+         *
+         * @return the JSON string of the constants, not <code>null</code>
+         */
+        public String toJson() {
+            return json;
+        }
+
+        /**
+         * Gets the contents of this snapshot encoded as UTF-8 bytes of a
+         * JavaScript that registers the constants for the client engine.
+         *
+         * @return the JavaScript bytes, not <code>null</code>
+         */
+        public byte[] getScript() {
+            String script = "(function(){var flow=window.Vaadin.Flow;"
+                    + "(flow.sharedConstants=flow.sharedConstants||{})['"
+                    + hash + "']=" + json + ";})();";
+            return script.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /*
+     * Recorded constant JSON and the number of UIs that have used the
+     * constant, by constant id.
+     */
+    private Map<String, String> recordedJson = new HashMap<>();
+    private Map<String, Integer> recordedUsage = new HashMap<>();
+
+    private int bootstrappedUis;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Records a constant that has been sent to the client of a UI. Nothing is
+     * recorded once the snapshot has been created.
+     * <p>
+     * Every call counts as one more UI using the constant, so the constant
+     * pool of a UI should record each constant only once.
+     *
+     * @param id
+     *            the constant id, not <code>null</code>
+     * @param json
+     *            the constant value, not <code>null</code>
+     */
+    public void record(String id, JsonValue json) {
+        assert id != null;
+        assert json != null;
+
+        if (snapshot != null) {
+            return;
+        }
+        String jsonString = json.toJson();
+        synchronized (this) {
+            if (snapshot != null) {
+                return;
+            }
+            Integer usage = recordedUsage.get(id);
+            if (usage != null) {
+                recordedUsage.put(id, Integer.valueOf(usage.intValue() + 1));
+            } else if (recordedJson.size() < MAX_RECORDED_CONSTANTS) {
+                recordedJson.put(id, jsonString);
+                recordedUsage.put(id, Integer.valueOf(1));
+            }
+        }
+    }
+
+    /**
+     * Gets the snapshot to use for a UI that is being bootstrapped. The
+     * snapshot is created automatically once enough UIs have been bootstrapped.
+     *
+     * @return the snapshot, or <code>null</code> if the pool is still warming
+     *         up
+     */
+    public Snapshot getSnapshotForBootstrap() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            bootstrappedUis++;
+            if (bootstrappedUis > WARM_UP_UIS) {
+                freeze();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Gets the current snapshot without affecting the warm up.
+     *
+     * @return the snapshot, or <code>null</code> if the pool is still warming
+     *         up
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Creates the snapshot from the constants recorded so far, unless it has
+     * already been created. Constants recorded only once are not included
+     * since they are most likely specific to a single UI.
+     */
+    public synchronized void freeze() {
+        if (snapshot != null) {
+            return;
+        }
+        Map<String, String> shared = new HashMap<>();
+        recordedJson.forEach((id, json) -> {
+            if (recordedUsage.get(id).intValue() > 1) {
+                shared.put(id, json);
+            }
+        });
+        snapshot = new Snapshot(shared);
+
+        recordedJson = null;
+        recordedUsage = null;
+    }
+}
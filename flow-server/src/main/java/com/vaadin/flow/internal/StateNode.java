@@ -17,13 +17,13 @@
 package com.vaadin.flow.internal;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -138,7 +138,16 @@ public class StateNode implements Serializable {
      */
     private Serializable features;
 
-    private Map<Class<? extends NodeFeature>, Serializable> changes;
+    /**
+     * Change trackers for the features of this node, indexed in the same way as
+     * the {@link #features} array. To limit memory use, a single tracker is
+     * stored directly as the field value and its index in
+     * {@link #singleChangeIndex}. Otherwise this is an array or
+     * <code>null</code>.
+     */
+    private Serializable changes;
+
+    private int singleChangeIndex = -1;
 
     private List<Command> attachListeners;
 
@@ -315,11 +324,67 @@ public class StateNode implements Serializable {
     }
 
     private void forEachChild(Consumer<StateNode> action) {
-        forEachFeature(n -> n.forEachChild(action));
+        int slots = getFeatureSlotCount();
+        for (int i = 0; i < slots; i++) {
+            NodeFeature feature = getFeatureInSlot(i);
+            if (feature != null) {
+                feature.forEachChild(action);
+            }
+        }
+    }
+
+    /**
+     * Passes the id of each {@link ConstantPoolKey} stored as a value in the
+     * features of this node to the given action.
+     *
+     * @see NodeFeature#forEachConstantId(Consumer)
+     *
+     * @param action
+     *            the action to pass constant ids to, not <code>null</code>
+     */
+    public void forEachConstantId(Consumer<String> action) {
+        int slots = getFeatureSlotCount();
+        for (int i = 0; i < slots; i++) {
+            NodeFeature feature = getFeatureInSlot(i);
+            if (feature != null) {
+                feature.forEachConstantId(action);
+            }
+        }
     }
 
     private void forEachFeature(Consumer<NodeFeature> action) {
-        getInitializedFeatures().forEach(action::accept);
+        int slots = getFeatureSlotCount();
+        for (int i = 0; i < slots; i++) {
+            NodeFeature feature = getFeatureInSlot(i);
+            if (feature != null) {
+                action.accept(feature);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of slots in {@link #features}. Iterating the slots using
+     * {@link #getFeatureInSlot(int)} doesn't allocate any objects, which
+     * matters since features are iterated for every node when a subtree is
+     * attached, detached or collected.
+     */
+    private int getFeatureSlotCount() {
+        if (features == null) {
+            return 0;
+        } else if (features instanceof NodeFeature) {
+            return 1;
+        } else {
+            return ((NodeFeature[]) features).length;
+        }
+    }
+
+    private NodeFeature getFeatureInSlot(int slot) {
+        if (features instanceof NodeFeature) {
+            assert slot == 0;
+            return (NodeFeature) features;
+        } else {
+            return ((NodeFeature[]) features)[slot];
+        }
     }
 
     private Stream<NodeFeature> getInitializedFeatures() {
@@ -551,24 +616,79 @@ public class StateNode implements Serializable {
                 doCollectChanges(collector, getDisalowFeatures());
             }
         } else {
-            doCollectChanges(collector, getInitializedFeatures());
+            int slots = getFeatureSlotCount();
+            for (int i = 0; i < slots; i++) {
+                NodeFeature feature = getFeatureInSlot(i);
+                if (feature != null) {
+                    collectFeatureChanges(collector, feature, i);
+                }
+            }
+            afterCollectChanges();
         }
     }
 
     private void doCollectChanges(Consumer<NodeChange> collector,
             Stream<NodeFeature> features) {
-        features.filter(this::hasChangeTracker).forEach(feature -> {
+        features.forEach(feature -> collectFeatureChanges(collector, feature,
+                getFeatureIndex(feature.getClass())));
+        afterCollectChanges();
+    }
+
+    private void collectFeatureChanges(Consumer<NodeChange> collector,
+            NodeFeature feature, int featureIndex) {
+        if (getChangeTracker(featureIndex) != null) {
             feature.collectChanges(collector);
-            changes.remove(feature.getClass());
-        });
+            setChangeTracker(featureIndex, null);
+        }
+    }
+
+    private void afterCollectChanges() {
         isInitialChanges = false;
-        if (changes != null && changes.isEmpty()) {
+        if (singleChangeIndex == -1 && changes != null) {
+            for (Serializable tracker : (Serializable[]) changes) {
+                if (tracker != null) {
+                    return;
+                }
+            }
             changes = null;
         }
     }
 
-    private boolean hasChangeTracker(NodeFeature nodeFeature) {
-        return changes != null && changes.containsKey(nodeFeature.getClass());
+    private Serializable getChangeTracker(int featureIndex) {
+        if (singleChangeIndex != -1) {
+            return singleChangeIndex == featureIndex ? changes : null;
+        } else if (changes == null) {
+            return null;
+        }
+        return ((Serializable[]) changes)[featureIndex];
+    }
+
+    private void setChangeTracker(int featureIndex, Serializable tracker) {
+        if (singleChangeIndex == featureIndex) {
+            changes = tracker;
+            if (tracker == null) {
+                singleChangeIndex = -1;
+            }
+        } else if (changes == null) {
+            if (tracker != null) {
+                changes = tracker;
+                singleChangeIndex = featureIndex;
+            }
+        } else {
+            Serializable[] trackers;
+            if (singleChangeIndex != -1) {
+                if (tracker == null) {
+                    return;
+                }
+                trackers = new Serializable[featureSet.mappings.size()];
+                trackers[singleChangeIndex] = changes;
+                singleChangeIndex = -1;
+                changes = trackers;
+            } else {
+                trackers = (Serializable[]) changes;
+            }
+            trackers[featureIndex] = tracker;
+        }
     }
 
     /**
@@ -577,6 +697,7 @@ public class StateNode implements Serializable {
      */
     public void clearChanges() {
         changes = null;
+        singleChangeIndex = -1;
     }
 
     /**
@@ -588,12 +709,14 @@ public class StateNode implements Serializable {
      *            visitor to apply
      */
     public void visitNodeTree(Consumer<StateNode> visitor) {
-        LinkedList<StateNode> stack = new LinkedList<>();
-        stack.add(this);
+        ArrayDeque<StateNode> stack = new ArrayDeque<>();
+        // Created once instead of once per visited node
+        Consumer<StateNode> push = stack::push;
+        stack.push(this);
         while (!stack.isEmpty()) {
-            StateNode node = stack.removeFirst();
+            StateNode node = stack.pop();
             visitor.accept(node);
-            node.forEachChild(child -> stack.add(0, child));
+            node.forEachChild(push);
         }
     }
 
@@ -608,20 +731,22 @@ public class StateNode implements Serializable {
      */
     // package protected for testing
     void visitNodeTreeBottomUp(Consumer<StateNode> visitor) {
-        LinkedList<StateNode> stack = new LinkedList<>();
-        stack.add(this);
+        ArrayDeque<StateNode> stack = new ArrayDeque<>();
+        // Created once instead of once per visited node
+        Consumer<StateNode> push = stack::push;
+        stack.push(this);
         // not done inside loop to please Sonarcube
-        forEachChild(stack::addFirst);
+        forEachChild(push);
         StateNode previousParent = this;
 
         while (!stack.isEmpty()) {
-            StateNode current = stack.getFirst();
+            StateNode current = stack.peek();
             assert current != null;
             if (current == previousParent) {
-                visitor.accept(stack.removeFirst());
+                visitor.accept(stack.pop());
                 previousParent = current.getParent();
             } else {
-                current.forEachChild(stack::addFirst);
+                current.forEachChild(push);
                 previousParent = current;
             }
         }
@@ -737,7 +862,13 @@ public class StateNode implements Serializable {
             copy.forEach(Command::execute);
         }
 
-        forEachFeature(f -> f.onAttach(initialAttach));
+        int slots = getFeatureSlotCount();
+        for (int i = 0; i < slots; i++) {
+            NodeFeature feature = getFeatureInSlot(i);
+            if (feature != null) {
+                feature.onAttach(initialAttach);
+            }
+        }
     }
 
     private void fireDetachListeners() {
@@ -765,12 +896,14 @@ public class StateNode implements Serializable {
     @SuppressWarnings("unchecked")
     public <T extends Serializable> T getChangeTracker(NodeFeature feature,
             Supplier<T> factory) {
-        if (changes == null) {
-            changes = new HashMap<>();
-        }
+        int featureIndex = getFeatureIndex(feature.getClass());
 
-        return (T) changes.computeIfAbsent(feature.getClass(),
-                k -> factory.get());
+        Serializable tracker = getChangeTracker(featureIndex);
+        if (tracker == null) {
+            tracker = factory.get();
+            setChangeTracker(featureIndex, tracker);
+        }
+        return (T) tracker;
     }
 
     /**
@@ -832,7 +965,7 @@ public class StateNode implements Serializable {
      * @see NodeFeature#allowsChanges()
      */
     public void updateActiveState() {
-        setInactive(getDisalowFeatures().count() != 0);
+        setInactive(hasDisallowFeatures());
     }
 
     /**
@@ -849,6 +982,17 @@ public class StateNode implements Serializable {
         return getParent().isInactive();
     }
 
+    private boolean hasDisallowFeatures() {
+        int slots = getFeatureSlotCount();
+        for (int i = 0; i < slots; i++) {
+            NodeFeature feature = getFeatureInSlot(i);
+            if (feature != null && !feature.allowsChanges()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private Stream<NodeFeature> getDisalowFeatures() {
         return getInitializedFeatures()
                 .filter(feature -> !feature.allowsChanges());
@@ -19,11 +19,9 @@ package com.vaadin.flow.internal;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -123,10 +121,18 @@ public class StateTree implements NodeOwner {
 
     private Set<StateNode> dirtyNodes = new LinkedHashSet<>();
 
-    private final Map<Integer, StateNode> idToNode = new HashMap<>();
+    /**
+     * Alternative dirty node bookkeeping used instead of {@link #dirtyNodes}
+     * when indexed tracking is enabled, <code>null</code> otherwise.
+     */
+    private DirtyNodeIndex dirtyNodeIndex;
+
+    private final NodeIdMap idToNode = new NodeIdMap();
 
     private int nextId = 1;
 
+    private boolean listChangeCoalescing;
+
     private Set<StateNode> pendingExecutionNodes = new HashSet<>();
 
     private int nextBeforeClientResponseIndex = 1;
@@ -192,20 +198,16 @@ public class StateTree implements NodeOwner {
     public void unregister(StateNode node) {
         assert node.getOwner() == this;
 
-        Integer id = node.getId();
-
-        StateNode removedNode = idToNode.remove(id);
+        int id = node.getId();
 
-        if (removedNode != node) {
-            // Remove by id didn't remove the expected node
-            if (removedNode != null) {
-                // Put the old node back
-                idToNode.put(removedNode.getId(), removedNode);
-            }
+        if (idToNode.get(id) != node) {
+            // Removing by id wouldn't remove the expected node
             throw new IllegalStateException(
                     "Unregistered node was not found based on its id. The tree is most likely corrupted.");
         }
 
+        idToNode.remove(id);
+
         pendingExecutionNodes.remove(node);
     }
 
@@ -236,6 +238,11 @@ public class StateTree implements NodeOwner {
      *            a consumer accepting node changes
      */
     public void collectChanges(Consumer<NodeChange> collector) {
+        if (dirtyNodeIndex != null) {
+            collectIndexedChanges(collector);
+            return;
+        }
+
         Set<StateNode> allDirtyNodes = new LinkedHashSet<>();
         boolean evaluateNewDirtyNodes = true;
 
@@ -252,12 +259,93 @@ public class StateTree implements NodeOwner {
         allDirtyNodes.forEach(node -> node.collectChanges(collector));
     }
 
+    private void collectIndexedChanges(Consumer<NodeChange> collector) {
+        // The updateActiveState method can create new dirty nodes. Those are
+        // appended to the queue and thus also visited by this loop.
+        for (int i = 0; i < dirtyNodeIndex.size(); i++) {
+            dirtyNodeIndex.get(i).updateActiveState();
+        }
+
+        dirtyNodeIndex.drain(node -> node.collectChanges(collector));
+    }
+
+    /**
+     * Sets whether dirty nodes should be tracked using a bit set indexed by
+     * node id and an ordered queue instead of hash based sets. The indexed
+     * tracking avoids creating new collections for every round trip, which
+     * reduces the allocation rate for large trees with many dirty nodes.
+     * <p>
+     * Nodes that are already marked as dirty remain dirty, and their order is
+     * preserved.
+     *
+     * @param indexed
+     *            <code>true</code> to use indexed tracking,
+     *            <code>false</code> to use hash based sets
+     */
+    public void setIndexedDirtyNodeTracking(boolean indexed) {
+        if (indexed == isIndexedDirtyNodeTracking()) {
+            return;
+        }
+        if (indexed) {
+            DirtyNodeIndex index = new DirtyNodeIndex();
+            dirtyNodes.forEach(index::add);
+            dirtyNodes = new LinkedHashSet<>();
+            dirtyNodeIndex = index;
+        } else {
+            DirtyNodeIndex index = dirtyNodeIndex;
+            dirtyNodeIndex = null;
+            index.drain(dirtyNodes::add);
+        }
+    }
+
+    /**
+     * Checks whether dirty nodes are tracked using a bit set indexed by node
+     * id.
+     *
+     * @see #setIndexedDirtyNodeTracking(boolean)
+     *
+     * @return <code>true</code> if indexed tracking is used, otherwise
+     *         <code>false</code>
+     */
+    public boolean isIndexedDirtyNodeTracking() {
+        return dirtyNodeIndex != null;
+    }
+
     @Override
     public void markAsDirty(StateNode node) {
         assert node.getOwner() == this;
         checkHasLock();
 
-        dirtyNodes.add(node);
+        if (dirtyNodeIndex != null) {
+            dirtyNodeIndex.add(node);
+        } else {
+            dirtyNodes.add(node);
+        }
+    }
+
+    /**
+     * Sets whether consecutive changes to node lists should be coalesced into
+     * as few splice changes as possible when changes are collected.
+     *
+     * @param listChangeCoalescing
+     *            <code>true</code> to coalesce list changes,
+     *            <code>false</code> to report list changes as they were made
+     */
+    public void setListChangeCoalescing(boolean listChangeCoalescing) {
+        this.listChangeCoalescing = listChangeCoalescing;
+    }
+
+    /**
+     * Checks whether consecutive changes to node lists are coalesced into as
+     * few splice changes as possible.
+     *
+     * @see #setListChangeCoalescing(boolean)
+     *
+     * @return <code>true</code> if list changes are coalesced, otherwise
+     *         <code>false</code>
+     */
+    public boolean isListChangeCoalescing() {
+        return listChangeCoalescing;
     }
 
     /**
@@ -267,6 +355,12 @@ public class StateTree implements NodeOwner {
      * @return a set of dirty nodes, in the order they were marked dirty
      */
     public Set<StateNode> collectDirtyNodes() {
+        if (dirtyNodeIndex != null) {
+            Set<StateNode> collectedNodes = new LinkedHashSet<>(
+                    dirtyNodeIndex.size());
+            dirtyNodeIndex.drain(collectedNodes::add);
+            return collectedNodes;
+        }
         Set<StateNode> collectedNodes = dirtyNodes;
         dirtyNodes = new LinkedHashSet<>();
         return collectedNodes;
@@ -279,6 +373,9 @@ public class StateTree implements NodeOwner {
      * @return true if there are dirty nodes, false otherwise
      */
     public boolean hasDirtyNodes() {
+        if (dirtyNodeIndex != null) {
+            return !dirtyNodeIndex.isEmpty();
+        }
         return !dirtyNodes.isEmpty();
     }
 
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utility class for using virtual threads when the JVM supports them.
+ * <p>
+ * The framework is compiled for Java versions without virtual threads, so the
+ * support is detected at runtime using reflection.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class VirtualThreads implements Serializable {
+
+    private static final Method NEW_EXECUTOR = findNewExecutorMethod();
+
+    private VirtualThreads() {
+        // Static helpers only
+    }
+
+    /**
+     * Checks whether the running JVM supports virtual threads.
+     *
+     * @return <code>true</code> if virtual threads are supported,
+     *         <code>false</code> otherwise
+     */
+    public static boolean isSupported() {
+        return NEW_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that runs each task in a new virtual thread.
+     *
+     * @return an executor using virtual threads, or an empty optional if the
+     *         JVM doesn't support virtual threads
+     */
+    public static Optional<ExecutorService> newExecutor() {
+        if (NEW_EXECUTOR == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) NEW_EXECUTOR.invoke(null));
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            getLogger().warn("Unable to create a virtual thread executor", e);
+            return Optional.empty();
+        }
+    }
+
+    private static Method findNewExecutorMethod() {
+        try {
+            return Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(VirtualThreads.class.getName());
+    }
+}
@@ -127,4 +127,23 @@ public class ListAddChange<T extends Serializable>
         json.put(addKey, newItemsJson);
     }
 
+    @Override
+    protected int getCompactType() {
+        if (nodeValues) {
+            return JsonConstants.CHANGE_CODE_SPLICE_NODES;
+        }
+        return JsonConstants.CHANGE_CODE_SPLICE;
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        super.populateCompactJson(json, constantPool);
+
+        json.set(json.length(), getIndex());
+        json.set(json.length(), 0);
+        json.set(json.length(), ListSpliceChange.encodeItems(newItems,
+                nodeValues, constantPool));
+    }
+
 }
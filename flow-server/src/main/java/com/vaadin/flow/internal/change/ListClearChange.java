@@ -57,4 +57,9 @@ public class ListClearChange<T extends Serializable>
         super.populateJson(json, constantPool);
     }
 
+    @Override
+    protected int getCompactType() {
+        return JsonConstants.CHANGE_CODE_CLEAR;
+    }
+
 }
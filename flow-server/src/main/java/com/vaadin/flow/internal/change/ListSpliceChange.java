@@ -0,0 +1,168 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal.change;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.JsonCodec;
+import com.vaadin.flow.internal.JsonUtils;
+import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.nodefeature.NodeList;
+import com.vaadin.flow.shared.JsonConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Change describing a combined remove and add operation in a {@link NodeList
+ * list} node feature. Splice changes are produced when consecutive add and
+ * remove changes to the same list are coalesced.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ *
+ * @param <T>
+ *            the type of the items in the node list
+ */
+public class ListSpliceChange<T extends Serializable>
+        extends AbstractListChange<T> {
+
+    private final int removeCount;
+    private final List<? extends T> newItems;
+    private final boolean nodeValues;
+
+    /**
+     * Creates a new list splice change.
+     *
+     * @param list
+     *            the changed list
+     * @param nodeValues
+     *            true if the values are {@link StateNode}s, false otherwise
+     * @param index
+     *            the index of the splice operation
+     * @param removeCount
+     *            the number of items to remove starting from the index
+     * @param newItems
+     *            a list of items to insert at the index after removing, not
+     *            <code>null</code>
+     */
+    public ListSpliceChange(NodeList<T> list, boolean nodeValues, int index,
+            int removeCount, List<? extends T> newItems) {
+        super(list, index);
+        assert removeCount >= 0;
+        assert newItems != null;
+        this.removeCount = removeCount;
+        this.newItems = newItems;
+        this.nodeValues = nodeValues;
+    }
+
+    /**
+     * Gets the number of removed items.
+     *
+     * @return the number of removed items
+     */
+    public int getRemoveCount() {
+        return removeCount;
+    }
+
+    /**
+     * Gets the added items.
+     *
+     * @return the added items
+     */
+    public List<T> getNewItems() {
+        return Collections.unmodifiableList(newItems);
+    }
+
+    @Override
+    public ListSpliceChange<T> copy(int indx) {
+        return new ListSpliceChange<>(getNodeList(), nodeValues, indx,
+                removeCount, newItems);
+    }
+
+    @Override
+    protected void populateJson(JsonObject json, ConstantPool constantPool) {
+        json.put(JsonConstants.CHANGE_TYPE, JsonConstants.CHANGE_TYPE_SPLICE);
+
+        super.populateJson(json, constantPool);
+
+        json.put(JsonConstants.CHANGE_SPLICE_INDEX, getIndex());
+
+        if (removeCount > 0) {
+            json.put(JsonConstants.CHANGE_SPLICE_REMOVE, removeCount);
+        }
+
+        if (newItems.isEmpty()) {
+            return;
+        }
+
+        String addKey = nodeValues ? JsonConstants.CHANGE_SPLICE_ADD_NODES
+                : JsonConstants.CHANGE_SPLICE_ADD;
+
+        json.put(addKey, encodeItems(newItems, nodeValues, constantPool));
+    }
+
+    @Override
+    protected int getCompactType() {
+        if (nodeValues) {
+            return JsonConstants.CHANGE_CODE_SPLICE_NODES;
+        }
+        return JsonConstants.CHANGE_CODE_SPLICE;
+    }
+
+    @Override
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        super.populateCompactJson(json, constantPool);
+
+        json.set(json.length(), getIndex());
+        json.set(json.length(), removeCount);
+        if (!newItems.isEmpty()) {
+            json.set(json.length(),
+                    encodeItems(newItems, nodeValues, constantPool));
+        }
+    }
+
+    /**
+     * Encodes the items added by a list change.
+     *
+     * @param items
+     *            the items to encode, not <code>null</code>
+     * @param nodeValues
+     *            true if the items are {@link StateNode}s, false otherwise
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @return a JSON array of node ids or encoded values
+     */
+    static JsonArray encodeItems(List<?> items, boolean nodeValues,
+            ConstantPool constantPool) {
+        Function<Object, JsonValue> mapper;
+        if (nodeValues) {
+            mapper = item -> Json.create(((StateNode) item).getId());
+        } else {
+            mapper = item -> JsonCodec.encodeWithConstantPool(item,
+                    constantPool);
+        }
+        return items.stream().map(mapper).collect(JsonUtils.asArray());
+    }
+}
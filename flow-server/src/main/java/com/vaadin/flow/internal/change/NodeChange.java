@@ -23,6 +23,7 @@ import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -83,4 +84,51 @@ public abstract class NodeChange implements Serializable {
      */
     protected abstract void populateJson(JsonObject json,
             ConstantPool constantPool);
+
+    /**
+     * Serializes this change to a compact JSON array. The first item of the
+     * array is the type code of the change and the second item is the id of
+     * the changed node. The meaning of the remaining items depends on the type
+     * code.
+     *
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     *
+     * @return a compact json representation of this change
+     */
+    public JsonArray toCompactJson(ConstantPool constantPool) {
+        JsonArray json = Json.createArray();
+
+        json.set(0, getCompactType());
+        json.set(1, node.getId());
+
+        populateCompactJson(json, constantPool);
+
+        return json;
+    }
+
+    /**
+     * Gets the type code that identifies this change in the compact encoding.
+     *
+     * @return the compact type code
+     * @see JsonConstants#CHANGE_CODE_ATTACH
+     */
+    protected abstract int getCompactType();
+
+    /**
+     * Overridden by subclasses to append items to a compact JSON array when
+     * serializing. The type code and the node id have already been added to
+     * the array.
+     *
+     * @param json
+     *            the json array to append to
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     */
+    protected void populateCompactJson(JsonArray json,
+            ConstantPool constantPool) {
+        // Nothing to add by default
+    }
 }
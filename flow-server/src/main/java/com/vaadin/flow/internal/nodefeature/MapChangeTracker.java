@@ -0,0 +1,220 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal.nodefeature;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Keeps track of the keys of a {@link NodeMap} that have been changed since
+ * changes were last collected, together with the value of each key before the
+ * first change.
+ * <p>
+ * A typical round trip changes only a few keys in each map. To limit memory
+ * use, a single change is stored inline in the tracker, a few changes are
+ * stored in small arrays that are searched linearly and only larger numbers of
+ * changes are additionally indexed using a hash map.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class MapChangeTracker implements Serializable {
+
+    private static final int MAX_LINEAR_SIZE = 8;
+
+    private int size;
+
+    /*
+     * The only change when no arrays have been allocated.
+     */
+    private String singleKey;
+    private Serializable singleValue;
+
+    private String[] keys;
+    private Serializable[] values;
+
+    /**
+     * Maps keys to their position in {@link #keys} once there are more than
+     * {@link #MAX_LINEAR_SIZE} changes, otherwise <code>null</code>.
+     */
+    private HashMap<String, Integer> index;
+
+    /**
+     * Gets the number of tracked keys.
+     *
+     * @return the number of tracked keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether no keys are tracked.
+     *
+     * @return <code>true</code> if no keys are tracked, otherwise
+     *         <code>false</code>
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the tracked key at the given position.
+     *
+     * @param position
+     *            the position, at least 0 and less than {@link #size()}
+     * @return the key at the position
+     */
+    String getKey(int position) {
+        assert position >= 0 && position < size;
+        return keys == null ? singleKey : keys[position];
+    }
+
+    /**
+     * Gets the tracked value at the given position.
+     *
+     * @param position
+     *            the position, at least 0 and less than {@link #size()}
+     * @return the value at the position
+     */
+    Serializable getValue(int position) {
+        assert position >= 0 && position < size;
+        return keys == null ? singleValue : values[position];
+    }
+
+    /**
+     * Checks whether the given key is tracked.
+     *
+     * @param key
+     *            the key to check
+     * @return <code>true</code> if the key is tracked, otherwise
+     *         <code>false</code>
+     */
+    boolean containsKey(String key) {
+        return indexOf(key) != -1;
+    }
+
+    /**
+     * Tracks a value for the given key, replacing any previously tracked value
+     * for the same key.
+     *
+     * @param key
+     *            the key to track, not <code>null</code>
+     * @param value
+     *            the value to track for the key
+     */
+    void put(String key, Serializable value) {
+        assert key != null;
+
+        int position = indexOf(key);
+        if (position != -1) {
+            if (keys == null) {
+                singleValue = value;
+            } else {
+                values[position] = value;
+            }
+            return;
+        }
+
+        if (keys == null) {
+            if (size == 0) {
+                singleKey = key;
+                singleValue = value;
+                size = 1;
+                return;
+            }
+            keys = new String[4];
+            values = new Serializable[4];
+            keys[0] = singleKey;
+            values[0] = singleValue;
+            singleKey = null;
+            singleValue = null;
+        } else if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        keys[size] = key;
+        values[size] = value;
+        size++;
+
+        if (index != null) {
+            index.put(key, Integer.valueOf(size - 1));
+        } else if (size > MAX_LINEAR_SIZE) {
+            index = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                index.put(keys[i], Integer.valueOf(i));
+            }
+        }
+    }
+
+    /**
+     * Stops tracking the given key. The last tracked key is moved to the
+     * position of the removed key.
+     *
+     * @param key
+     *            the key to remove
+     */
+    void remove(String key) {
+        int position = indexOf(key);
+        if (position == -1) {
+            return;
+        }
+
+        if (keys == null) {
+            singleKey = null;
+            singleValue = null;
+            size = 0;
+            return;
+        }
+
+        int last = size - 1;
+        if (index != null) {
+            index.remove(key);
+        }
+        if (position != last) {
+            keys[position] = keys[last];
+            values[position] = values[last];
+            if (index != null) {
+                index.put(keys[position], Integer.valueOf(position));
+            }
+        }
+        keys[last] = null;
+        values[last] = null;
+        size--;
+
+        if (index != null && size <= MAX_LINEAR_SIZE / 2) {
+            index = null;
+        }
+    }
+
+    private int indexOf(String key) {
+        if (keys == null) {
+            return size == 1 && singleKey.equals(key) ? 0 : -1;
+        } else if (index != null) {
+            Integer position = index.get(key);
+            return position == null ? -1 : position.intValue();
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
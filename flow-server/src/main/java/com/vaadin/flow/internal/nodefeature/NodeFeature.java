@@ -104,6 +104,19 @@ public abstract class NodeFeature implements Serializable {
      */
     public abstract void forEachChild(Consumer<StateNode> action);
 
+    /**
+     * Passes the id of each {@link com.vaadin.flow.internal.ConstantPoolKey}
+     * stored as a value in this feature to the given action. Features that
+     * store constants must report them so that they are not evicted from a
+     * bounded constant pool while still in use.
+     *
+     * @param action
+     *            the action to pass constant ids to, not <code>null</code>
+     */
+    public void forEachConstantId(Consumer<String> action) {
+        // NOOP by default
+    }
+
     /**
      * Called when the state node has been attached to the state tree.
      *
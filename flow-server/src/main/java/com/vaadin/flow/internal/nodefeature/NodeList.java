@@ -30,12 +30,16 @@ import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.vaadin.flow.internal.ConstantPoolKey;
+import com.vaadin.flow.internal.NodeOwner;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.internal.change.AbstractListChange;
 import com.vaadin.flow.internal.change.EmptyChange;
 import com.vaadin.flow.internal.change.ListAddChange;
 import com.vaadin.flow.internal.change.ListClearChange;
 import com.vaadin.flow.internal.change.ListRemoveChange;
+import com.vaadin.flow.internal.change.ListSpliceChange;
 import com.vaadin.flow.internal.change.NodeChange;
 
 /**
@@ -339,6 +343,10 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
 
         isRemoveAllCalled = false;
 
+        if (changes.size() > 1 && isChangeCoalescingEnabled()) {
+            changes = coalesceChanges(changes);
+        }
+
         if (isPopulated) {
             changes.forEach(collector);
         } else {
@@ -365,6 +373,18 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
     public void forEachChild(Consumer<StateNode> action) {
     }
 
+    @Override
+    public void forEachConstantId(Consumer<String> action) {
+        if (values == null) {
+            return;
+        }
+        for (T value : values) {
+            if (value instanceof ConstantPoolKey) {
+                action.accept(((ConstantPoolKey) value).getId());
+            }
+        }
+    }
+
     @Override
     public void generateChangesFromEmpty() {
         if (values != null) {
@@ -480,6 +500,102 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
         }
     }
 
+    private boolean isChangeCoalescingEnabled() {
+        NodeOwner owner = getNode().getOwner();
+        return owner instanceof StateTree
+                && ((StateTree) owner).isListChangeCoalescing();
+    }
+
+    /**
+     * Reduces a sequence of changes to an equivalent sequence with fewer
+     * changes by merging each change with the preceding change whenever the
+     * combination can be expressed as a single splice.
+     */
+    private List<AbstractListChange<T>> coalesceChanges(
+            List<AbstractListChange<T>> changes) {
+        List<AbstractListChange<T>> coalesced = new ArrayList<>(
+                changes.size());
+        for (AbstractListChange<T> change : changes) {
+            int last = coalesced.size() - 1;
+            AbstractListChange<T> merged = last < 0 ? null
+                    : mergeChanges(coalesced.get(last), change);
+            if (merged == null) {
+                coalesced.add(change);
+            } else {
+                coalesced.set(last, merged);
+            }
+        }
+        return coalesced;
+    }
+
+    private AbstractListChange<T> mergeChanges(AbstractListChange<T> previous,
+            AbstractListChange<T> next) {
+        if (previous instanceof ListClearChange<?>
+                || next instanceof ListClearChange<?>) {
+            return null;
+        }
+
+        // The previous change replaces removeCount items starting from index
+        // with the items in the added list
+        int index = previous.getIndex();
+        int removeCount = getRemoveCount(previous);
+        List<T> added = getAddedItems(previous);
+
+        if (next instanceof ListRemoveChange<?>) {
+            int removeIndex = next.getIndex();
+            if (removeIndex == index + added.size()) {
+                // Removes the item right after the spliced range
+                return createSplice(index, removeCount + 1, added);
+            } else if (removeIndex == index - 1) {
+                // Removes the item right before the spliced range
+                return createSplice(index - 1, removeCount + 1, added);
+            }
+        } else {
+            assert next instanceof ListAddChange<?>;
+            List<T> newItems = ((ListAddChange<T>) next).getNewItems();
+            int offset = next.getIndex() - index;
+            if (offset >= 0 && offset <= added.size()) {
+                // Inserts items inside or adjacent to the added items
+                List<T> items = new ArrayList<>(
+                        added.size() + newItems.size());
+                items.addAll(added.subList(0, offset));
+                items.addAll(newItems);
+                items.addAll(added.subList(offset, added.size()));
+                return createSplice(index, removeCount, items);
+            }
+        }
+        return null;
+    }
+
+    private AbstractListChange<T> createSplice(int index, int removeCount,
+            List<T> items) {
+        if (removeCount == 0) {
+            return new ListAddChange<>(this, isNodeValues(), index, items);
+        }
+        return new ListSpliceChange<>(this, isNodeValues(), index, removeCount,
+                items);
+    }
+
+    private static <T extends Serializable> int getRemoveCount(
+            AbstractListChange<T> change) {
+        if (change instanceof ListRemoveChange<?>) {
+            return 1;
+        } else if (change instanceof ListSpliceChange<?>) {
+            return ((ListSpliceChange<T>) change).getRemoveCount();
+        }
+        return 0;
+    }
+
+    private static <T extends Serializable> List<T> getAddedItems(
+            AbstractListChange<T> change) {
+        if (change instanceof ListAddChange<?>) {
+            return ((ListAddChange<T>) change).getNewItems();
+        } else if (change instanceof ListSpliceChange<?>) {
+            return ((ListSpliceChange<T>) change).getNewItems();
+        }
+        return Collections.emptyList();
+    }
+
     @Override
     public void onDetach() {
         if (isPopulated && values == null) {
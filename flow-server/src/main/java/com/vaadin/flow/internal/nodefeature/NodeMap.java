@@ -20,13 +20,11 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
 
+import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.change.EmptyChange;
 import com.vaadin.flow.internal.change.MapPutChange;
@@ -57,7 +55,7 @@ public abstract class NodeMap extends NodeFeature {
             return size() == 0;
         }
 
-        Stream<Serializable> streamValues();
+        void forEachNodeValue(Consumer<StateNode> action);
 
         // Named set instead of put to avoid incompatibility with HashMap where
         // put returns the previous value
@@ -101,8 +99,10 @@ public abstract class NodeMap extends NodeFeature {
         }
 
         @Override
-        public Stream<Serializable> streamValues() {
-            return Stream.of(value);
+        public void forEachNodeValue(Consumer<StateNode> action) {
+            if (value instanceof StateNode) {
+                action.accept((StateNode) value);
+            }
         }
 
         @Override
@@ -139,8 +139,12 @@ public abstract class NodeMap extends NodeFeature {
         }
 
         @Override
-        public Stream<Serializable> streamValues() {
-            return super.values().stream();
+        public void forEachNodeValue(Consumer<StateNode> action) {
+            for (Serializable value : super.values()) {
+                if (value instanceof StateNode) {
+                    action.accept((StateNode) value);
+                }
+            }
         }
     }
 
@@ -382,7 +386,7 @@ public abstract class NodeMap extends NodeFeature {
 
         getNode().markAsDirty();
 
-        Map<String, Serializable> changes = getChangeTracker();
+        MapChangeTracker changes = getChangeTracker();
 
         if (!changes.containsKey(key)) {
             // Record this as changed for the collection logic
@@ -397,8 +401,8 @@ public abstract class NodeMap extends NodeFeature {
         // TODO notify listeners
     }
 
-    private Map<String, Serializable> getChangeTracker() {
-        return getNode().getChangeTracker(this, HashMap::new);
+    private MapChangeTracker getChangeTracker() {
+        return getNode().getChangeTracker(this, MapChangeTracker::new);
     }
 
     private void setAccessed(String key) {
@@ -410,10 +414,10 @@ public abstract class NodeMap extends NodeFeature {
     @Override
     public void collectChanges(Consumer<NodeChange> collector) {
         boolean hasChanges = false;
-        for (Entry<String, Serializable> entry : getChangeTracker()
-                .entrySet()) {
-            String key = entry.getKey();
-            Serializable value = entry.getValue();
+        MapChangeTracker changes = getChangeTracker();
+        for (int i = 0; i < changes.size(); i++) {
+            String key = changes.getKey(i);
+            Serializable value = changes.getValue(i);
             boolean containsNow = values != null && values.containsKey(key);
             boolean containedEarlier = value != REMOVED_MARKER;
             if (containedEarlier && !containsNow) {
@@ -448,7 +452,7 @@ public abstract class NodeMap extends NodeFeature {
         }
         assert !values.isEmpty();
 
-        Map<String, Serializable> changes = getChangeTracker();
+        MapChangeTracker changes = getChangeTracker();
         values.keySet().forEach(k -> changes.put(k, REMOVED_MARKER));
     }
 
@@ -459,8 +463,27 @@ public abstract class NodeMap extends NodeFeature {
         }
         assert !values.isEmpty();
 
-        values.streamValues().filter(v -> v instanceof StateNode)
-                .forEach(v -> action.accept((StateNode) v));
+        values.forEachNodeValue(action);
+    }
+
+    /**
+     * Passes the id of each {@link ConstantPoolKey} stored as a value in this
+     * map to the given action.
+     *
+     * @param action
+     *            the action to pass constant ids to, not <code>null</code>
+     */
+    @Override
+    public void forEachConstantId(Consumer<String> action) {
+        if (values == null) {
+            return;
+        }
+        for (String key : values.keySet()) {
+            Serializable value = values.get(key);
+            if (value instanceof ConstantPoolKey) {
+                action.accept(((ConstantPoolKey) value).getId());
+            }
+        }
     }
 
     /**
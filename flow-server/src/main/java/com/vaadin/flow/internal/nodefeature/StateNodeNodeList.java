@@ -82,6 +82,10 @@ public abstract class StateNodeNodeList extends NodeList<StateNode> {
 
     @Override
     public void forEachChild(Consumer<StateNode> action) {
-        iterator().forEachRemaining(action);
+        // Indexed access avoids creating iterators for every visited node
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            action.accept(get(i));
+        }
     }
 }
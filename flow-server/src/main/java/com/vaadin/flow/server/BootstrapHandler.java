@@ -60,10 +60,12 @@ import com.vaadin.flow.component.page.Viewport;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.AnnotationReader;
 import com.vaadin.flow.internal.ReflectTools;
+import com.vaadin.flow.internal.SharedConstantPool.Snapshot;
 import com.vaadin.flow.internal.UsageStatistics;
 import com.vaadin.flow.server.BootstrapUtils.ThemeSettings;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
 import com.vaadin.flow.server.communication.PushConnectionFactory;
+import com.vaadin.flow.server.communication.SharedConstantsRequestHandler;
 import com.vaadin.flow.server.communication.UidlWriter;
 import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.VaadinUriResolver;
@@ -578,10 +580,12 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         setupMetaAndTitle(head, context);
         setupCss(head, context);
 
+        Snapshot sharedConstants = setupSharedConstants(context);
+
         JsonObject initialUIDL = getInitialUidl(context.getUI());
         Map<LoadMode, JsonArray> dependenciesToProcessOnServer = popDependenciesToProcessOnServer(
                 initialUIDL);
-        setupFrameworkLibraries(head, initialUIDL, context);
+        setupFrameworkLibraries(head, initialUIDL, context, sharedConstants);
         return applyUserDependencies(head, context,
                 dependenciesToProcessOnServer);
     }
@@ -633,8 +637,29 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         return result;
     }
 
+    /**
+     * Makes the UI use the application wide shared constant table if it is
+     * enabled and has been created.
+     */
+    private static Snapshot setupSharedConstants(BootstrapContext context) {
+        VaadinService service = context.getSession().getService();
+        if (!service.getDeploymentConfiguration().useSharedConstantPool()) {
+            return null;
+        }
+        Snapshot snapshot = service.getSharedConstantPool()
+                .getSnapshotForBootstrap();
+        if (snapshot != null) {
+            context.getUI().getInternals().getConstantPool()
+                    .setSharedConstants(snapshot.getIds());
+            context.getApplicationParameters().put(
+                    ApplicationConstants.SHARED_CONSTANTS, snapshot.getHash());
+        }
+        return snapshot;
+    }
+
     private static void setupFrameworkLibraries(Element head,
-            JsonObject initialUIDL, BootstrapContext context) {
+            JsonObject initialUIDL, BootstrapContext context,
+            Snapshot sharedConstants) {
         inlineEs6Collections(head, context);
         appendWebComponentsPolyfills(head, context);
 
@@ -643,6 +668,12 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         }
 
         head.appendChild(getBootstrapScript(initialUIDL, context));
+        if (sharedConstants != null) {
+            // Deferred like the client engine which is executed after it
+            head.appendChild(createJavaScriptElement(
+                    SharedConstantsRequestHandler
+                            .getResourcePath(sharedConstants)));
+        }
         head.appendChild(createJavaScriptElement(getClientEngineUrl(context)));
     }
 
@@ -1025,6 +1056,10 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
             appConfig.put("requestTiming", true);
         }
 
+        if (deploymentConfiguration.useCompactChangeEncoding()) {
+            appConfig.put(ApplicationConstants.COMPACT_CHANGES, true);
+        }
+
         appConfig.put("heartbeatInterval",
                 deploymentConfiguration.getHeartbeatInterval());
 
@@ -97,6 +97,125 @@ public final class Constants implements Serializable {
      */
     public static final String DISABLE_AUTOMATIC_SERVLET_REGISTRATION = "disable.automatic.servlet.registration";
 
+    /**
+     * Configuration name for the parameter that determines if the state tree
+     * should track dirty nodes using a bit set indexed by node id instead of
+     * hash based sets.
+     */
+    public static final String USE_INDEXED_DIRTY_NODE_TRACKING = "indexed.dirty.node.tracking";
+
+    /**
+     * Configuration name for the parameter that determines if consecutive
+     * changes to node lists should be coalesced into as few splice changes as
+     * possible before being sent to the client.
+     */
+    public static final String COALESCE_LIST_CHANGES = "coalesce.list.changes";
+
+    /**
+     * Configuration name for the parameter that sets the maximum number of
+     * constants kept in the constant pool of each UI. The default value
+     * <code>0</code> means that the constant pool is not bounded.
+     */
+    public static final String CONSTANT_POOL_MAX_SIZE = "constant.pool.max.size";
+
+    /**
+     * Configuration name for the parameter that determines if constants used
+     * by many UIs should be shared through an application wide constant table
+     * that is loaded by the bootstrap page.
+     */
+    public static final String USE_SHARED_CONSTANT_POOL = "shared.constant.pool";
+
+    /**
+     * Configuration name for the parameter that determines if state tree
+     * changes should be sent to the client as positional arrays with numeric
+     * type codes instead of JSON objects with named keys.
+     */
+    public static final String COMPACT_CHANGE_ENCODING = "compact.change.encoding";
+
+    /**
+     * Configuration name for the parameter that determines if the property
+     * synchronizations received in one message should be applied node by node
+     * so that only the last value of each property is applied.
+     */
+    public static final String BATCH_MAP_SYNC = "batch.map.sync";
+
+    /**
+     * Configuration name for the parameter that determines if the pending
+     * access tasks of sessions should be run by a dedicated executor instead of
+     * the thread releasing the session lock.
+     */
+    public static final String SESSION_ACCESS_EXECUTOR = "session.access.executor";
+
+    /**
+     * Configuration name for the parameter that determines if virtual threads
+     * should be used when the JVM supports them.
+     */
+    public static final String VIRTUAL_THREADS = "virtual.threads";
+
+    /**
+     * Configuration name for the parameter that sets the minimum time in
+     * milliseconds between automatic pushes to the same UI. The default value
+     * <code>0</code> means that changes are pushed as soon as the session is
+     * unlocked.
+     */
+    public static final String PUSH_COALESCING_WINDOW = "push.coalescing.window";
+
+    /**
+     * Configuration name for the parameter that determines if inactive UIs
+     * and sessions should be cleaned up in a background thread instead of at
+     * the end of every request.
+     */
+    public static final String BACKGROUND_SESSION_CLEANUP = "background.session.cleanup";
+
+    /**
+     * Configuration name for the parameter that determines if UIs should be
+     * closed proactively when their heartbeat timeout expires.
+     */
+    public static final String HEARTBEAT_EXPIRY_WHEEL = "heartbeat.expiry.wheel";
+
+    /**
+     * Configuration name for the parameter that sets the maximum number of
+     * pushed messages per connection that may be waiting to be written to the
+     * client. The default value <code>0</code> means that the number is not
+     * limited.
+     */
+    public static final String PUSH_OUTBOX_SIZE = "push.outbox.size";
+
+    /**
+     * Configuration name for the parameter that sets the maximum length, in
+     * characters, of a message received through a websocket push connection.
+     */
+    public static final String PUSH_MAX_MESSAGE_LENGTH = "push.max.message.length";
+
+    /**
+     * The default maximum length, in characters, of a message received through
+     * a websocket push connection.
+     */
+    public static final int DEFAULT_PUSH_MAX_MESSAGE_LENGTH = 10 * 1024 * 1024;
+
+    /**
+     * Configuration name for the parameter that sets the size in bytes above
+     * which UIDL responses are gzip compressed. The default value
+     * <code>0</code> means that responses are not compressed.
+     */
+    public static final String UIDL_COMPRESSION_THRESHOLD = "uidl.compression.threshold";
+
+    /**
+     * Configuration name for the parameter that sets the time in milliseconds
+     * that changes are collected before they are pushed through a long polling
+     * connection. The default value <code>0</code> means that changes are
+     * pushed right away.
+     */
+    public static final String LONG_POLLING_BATCHING_WINDOW = "push.longpolling.batching.window";
+
+    /**
+     * Configuration name for the parameter that sets the maximum total size in
+     * bytes of the static resources cached in memory by the static file
+     * server. The default value <code>0</code> means that resources are not
+     * cached.
+     */
+    public static final String STATIC_RESOURCE_CACHE_SIZE = "static.resource.cache.size";
+
     private Constants() {
         // prevent instantiation constants class only
     }
@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
 public class FutureAccess extends FutureTask<Void> {
     private final VaadinSession session;
     private final Command command;
+    private final long creationTime = System.nanoTime();
 
     /**
      * Creates an instance for the given command.
@@ -62,6 +63,16 @@ public class FutureAccess extends FutureTask<Void> {
         return super.get();
     }
 
+    /**
+     * Gets the value of {@link System#nanoTime()} at the time this task was
+     * created.
+     *
+     * @return the creation time in nanoseconds
+     */
+    public long getCreationTime() {
+        return creationTime;
+    }
+
     /**
      * Handles exceptions thrown during the execution of this task.
      *
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+
+/**
+ * Hashed timing wheel that closes UIs whose heartbeats have stopped.
+ * <p>
+ * Each UI is put in the bucket of the tick when its heartbeat timeout expires.
+ * Later heartbeats don't move the UI. Instead, when the bucket of a UI is
+ * processed, the deadline is computed again from the latest heartbeat and the
+ * UI is moved forward if it is still alive. Deadlines beyond one revolution of
+ * the wheel are handled the same way. Each tick thus only touches the UIs that
+ * might have expired, and sessions with no expiring UIs are never visited.
+ * <p>
+ * The wheel ticks a few times per heartbeat interval, so UIs are closed and
+ * their memory released at most one heartbeat interval after the timeout.
+ * <p>
+ * The wheel owns a scheduler thread and is therefore not serializable.
+ *
+ * @see com.vaadin.flow.function.DeploymentConfiguration#useHeartbeatExpiryWheel()
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class HeartbeatExpiryWheel {
+
+    /**
+     * The number of ticks per heartbeat interval.
+     */
+    static final int TICKS_PER_INTERVAL = 4;
+
+    /**
+     * The number of buckets in the wheel.
+     */
+    static final int WHEEL_SIZE = 64;
+
+    private final VaadinService service;
+    private final long tickMillis;
+
+    private final Set<UI>[] buckets;
+    private final Set<UI> scheduledUIs = ConcurrentHashMap.newKeySet();
+
+    /*
+     * The number of ticks since the start time. Written only by the ticking
+     * thread.
+     */
+    private final AtomicLong currentTick = new AtomicLong();
+    private final long startTime = System.currentTimeMillis();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a new wheel for the UIs of the given service. The wheel ticks
+     * {@value #TICKS_PER_INTERVAL} times per heartbeat interval.
+     *
+     * @param service
+     *            the service, not <code>null</code>
+     */
+    public HeartbeatExpiryWheel(VaadinService service) {
+        this(service, TimeUnit.SECONDS.toMillis(
+                service.getDeploymentConfiguration().getHeartbeatInterval())
+                / TICKS_PER_INTERVAL, true);
+    }
+
+    /**
+     * Creates a new wheel.
+     *
+     * @param service
+     *            the service, not <code>null</code>
+     * @param tickMillis
+     *            the duration of a tick in milliseconds, must be positive
+     * @param start
+     *            <code>true</code> to tick automatically in a background
+     *            thread, <code>false</code> to only tick when {@link #tick()}
+     *            is called
+     */
+    @SuppressWarnings("unchecked")
+    HeartbeatExpiryWheel(VaadinService service, long tickMillis,
+            boolean start) {
+        assert service != null;
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "The tick duration must be positive");
+        }
+        this.service = service;
+        this.tickMillis = tickMillis;
+
+        buckets = new Set[WHEEL_SIZE];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+
+        if (start) {
+            scheduler = Executors
+                    .newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "vaadin-heartbeat-expiry");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            scheduler.scheduleAtFixedRate(this::tick, tickMillis, tickMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Starts tracking the heartbeats of the given UI, unless already tracked.
+     *
+     * @param ui
+     *            the UI, not <code>null</code>
+     */
+    public void schedule(UI ui) {
+        if (scheduledUIs.add(ui)) {
+            insert(ui, getDeadline(ui));
+        }
+    }
+
+    /**
+     * Stops tracking the heartbeats of the given UI, e.g. because it has been
+     * removed from its session. The wheel no longer references the UI
+     * afterwards.
+     *
+     * @param ui
+     *            the UI, not <code>null</code>
+     */
+    public void unschedule(UI ui) {
+        if (scheduledUIs.remove(ui)) {
+            for (Set<UI> bucket : buckets) {
+                bucket.remove(ui);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of UIs tracked by this wheel.
+     *
+     * @return the number of tracked UIs
+     */
+    public int getScheduledUICount() {
+        return scheduledUIs.size();
+    }
+
+    // package protected for testing
+    int getBucketedUICount() {
+        int count = 0;
+        for (Set<UI> bucket : buckets) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    private long getDeadline(UI ui) {
+        return ui.getInternals().getLastHeartbeatTimestamp()
+                + TimeUnit.SECONDS.toMillis(service.getHeartbeatTimeout());
+    }
+
+    private void insert(UI ui, long deadline) {
+        long current = currentTick.get();
+        // Round up so that the UI is never processed before the deadline
+        long tick = (deadline - startTime + tickMillis - 1) / tickMillis;
+        // Never insert into the bucket being processed
+        tick = Math.max(tick, current + 1);
+        // Revisit deadlines beyond one revolution on the last bucket
+        tick = Math.min(tick, current + WHEEL_SIZE - 1);
+        buckets[(int) (tick % WHEEL_SIZE)].add(ui);
+    }
+
+    /**
+     * Advances the wheel by one tick and closes the UIs in the bucket of the
+     * new tick whose heartbeat timeout has expired.
+     */
+    void tick() {
+        long tick = currentTick.incrementAndGet();
+        Set<UI> bucket = buckets[(int) (tick % WHEEL_SIZE)];
+        long now = System.currentTimeMillis();
+
+        for (Iterator<UI> iterator = bucket.iterator(); iterator.hasNext();) {
+            UI ui = iterator.next();
+            iterator.remove();
+            try {
+                process(ui, now);
+            } catch (Exception e) {
+                getLogger().error("Error expiring UI", e);
+                scheduledUIs.remove(ui);
+            }
+        }
+    }
+
+    private void process(UI ui, long now) {
+        if (!scheduledUIs.contains(ui)) {
+            // Unscheduled while the bucket was being processed
+            return;
+        }
+        long deadline = getDeadline(ui);
+        if (deadline > now) {
+            insert(ui, deadline);
+            return;
+        }
+
+        VaadinSession session = ui.getSession();
+        if (session == null) {
+            // Already removed from its session
+            scheduledUIs.remove(ui);
+            return;
+        }
+        if (!session.getLockInstance().tryLock()) {
+            // Try again on the next tick
+            insert(ui, now);
+            return;
+        }
+        Map<Class<?>, CurrentInstance> old = CurrentInstance
+                .setCurrent(session);
+        try {
+            if (session.getUIById(ui.getUIId()) != ui) {
+                scheduledUIs.remove(ui);
+            } else if (service.isUIActive(ui)) {
+                // Somebody is accessing the session, check again later
+                insert(ui, now);
+            } else {
+                // Close with the UI and session set as current instances
+                ui.accessSynchronously(ui::close);
+                service.cleanupSession(session);
+                scheduledUIs.remove(ui);
+            }
+        } finally {
+            session.unlock();
+            CurrentInstance.restoreInstances(old);
+        }
+    }
+
+    /**
+     * Stops the background ticking.
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        scheduledUIs.clear();
+        for (Set<UI> bucket : buckets) {
+            bucket.clear();
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(HeartbeatExpiryWheel.class.getName());
+    }
+}
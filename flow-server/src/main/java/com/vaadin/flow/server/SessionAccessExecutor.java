@@ -0,0 +1,224 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the pending access tasks of sessions on a dedicated thread pool instead
+ * of on the thread that happens to release the session lock.
+ * <p>
+ * Each session acts like an actor: tasks enqueued with
+ * {@link VaadinSession#access(Command)} are run one session at a time by a
+ * single drain scheduled for the session. A drain never waits for the session
+ * lock. If the lock is held, e.g. by a request thread, the drain backs out and
+ * a new drain is scheduled when the holder releases the lock. Request threads
+ * thus neither run queued background tasks nor push their changes when they
+ * unlock the session.
+ * <p>
+ * The executor also collects metrics about the queued tasks.
+ *
+ * @see com.vaadin.flow.function.DeploymentConfiguration#useSessionAccessExecutor()
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class SessionAccessExecutor implements Serializable {
+
+    private final transient ExecutorService executor;
+
+    private final Set<VaadinSession> scheduledSessions = ConcurrentHashMap
+            .newKeySet();
+
+    private final LongAdder executedTasks = new LongAdder();
+    private final LongAdder totalWaitTime = new LongAdder();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    /**
+     * Creates a new executor that uses a daemon thread pool with one thread
+     * per available processor.
+     */
+    public SessionAccessExecutor() {
+        this(Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                new DaemonThreadFactory()));
+    }
+
+    /**
+     * Creates a new executor that runs the drains of sessions using the given
+     * executor service.
+     *
+     * @param executor
+     *            the executor service to use, not <code>null</code>
+     */
+    public SessionAccessExecutor(ExecutorService executor) {
+        assert executor != null;
+        this.executor = executor;
+    }
+
+    /**
+     * Schedules the pending access tasks of the given session to be run,
+     * unless a drain is already scheduled for the session.
+     *
+     * @param session
+     *            the session to drain, not <code>null</code>
+     */
+    public void schedule(VaadinSession session) {
+        if (!scheduledSessions.add(session)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(session));
+        } catch (RejectedExecutionException e) {
+            scheduledSessions.remove(session);
+            getLogger().warn(
+                    "Unable to schedule pending access tasks of a session", e);
+        }
+    }
+
+    private void drain(VaadinSession session) {
+        /*
+         * Remove before checking the queue so that tasks enqueued from now on
+         * schedule a new drain instead of relying on this one.
+         */
+        scheduledSessions.remove(session);
+
+        if (!session.getLockInstance().tryLock()) {
+            // The lock holder schedules a new drain when unlocking
+            return;
+        }
+        try {
+            session.runPendingAccessTasksAndPush();
+        } finally {
+            /*
+             * Bypass VaadinSession.unlock() which would hand the work back to
+             * this executor
+             */
+            session.getLockInstance().unlock();
+        }
+
+        // Tasks enqueued while draining found the lock held
+        if (!session.getPendingAccessQueue().isEmpty()) {
+            schedule(session);
+        }
+    }
+
+    /**
+     * Records that a pending access task is about to run.
+     *
+     * @param task
+     *            the task to run, not <code>null</code>
+     */
+    void taskStarted(FutureAccess task) {
+        long waitTime = System.nanoTime() - task.getCreationTime();
+        executedTasks.increment();
+        totalWaitTime.add(waitTime);
+        maxWaitTime.accumulateAndGet(waitTime, Math::max);
+    }
+
+    /**
+     * Gets the number of access tasks waiting to be run for the given session.
+     *
+     * @param session
+     *            the session to check, not <code>null</code>
+     * @return the number of pending access tasks
+     */
+    public int getQueueDepth(VaadinSession session) {
+        return session.getPendingAccessQueue().size();
+    }
+
+    /**
+     * Gets the number of sessions that currently have a drain scheduled.
+     *
+     * @return the number of scheduled sessions
+     */
+    public int getScheduledSessionCount() {
+        return scheduledSessions.size();
+    }
+
+    /**
+     * Gets the number of access tasks that have been run.
+     *
+     * @return the number of run tasks
+     */
+    public long getExecutedTaskCount() {
+        return executedTasks.sum();
+    }
+
+    /**
+     * Gets the average time between enqueuing an access task and running it.
+     *
+     * @param unit
+     *            the time unit of the result, not <code>null</code>
+     * @return the average wait time, or 0 if no tasks have been run
+     */
+    public long getAverageWaitTime(TimeUnit unit) {
+        long count = executedTasks.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return unit.convert(totalWaitTime.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time between enqueuing an access task and running it.
+     *
+     * @param unit
+     *            the time unit of the result, not <code>null</code>
+     * @return the maximum wait time, or 0 if no tasks have been run
+     */
+    public long getMaxWaitTime(TimeUnit unit) {
+        return unit.convert(maxWaitTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the threads of this executor. Drains that have not yet started are
+     * not run.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(SessionAccessExecutor.class.getName());
+    }
+
+    private static class DaemonThreadFactory
+            implements ThreadFactory, Serializable {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "vaadin-session-access-"
+                    + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.internal.CurrentInstance;
+
+/**
+ * Closes inactive UIs and sessions in a background thread instead of at the
+ * end of every request.
+ * <p>
+ * Sessions are registered with the reaper when a request using them ends. The
+ * reaper periodically goes through the registered sessions and cleans up each
+ * session that is not locked at the moment. Locked sessions are cleaned up on a
+ * later round. Sessions are forgotten when they are destroyed.
+ * <p>
+ * The reaper owns a scheduler thread and is therefore not serializable.
+ *
+ * @see com.vaadin.flow.function.DeploymentConfiguration#useBackgroundSessionCleanup()
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class SessionReaper {
+
+    /**
+     * The interval between cleanup rounds, in seconds, if heartbeats are
+     * disabled.
+     */
+    static final int DEFAULT_INTERVAL = 60;
+
+    private final VaadinService service;
+
+    private final Set<VaadinSession> sessions = ConcurrentHashMap
+            .newKeySet();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a new reaper for the sessions of the given service. Cleanup
+     * rounds are run at the heartbeat interval of the service.
+     *
+     * @param service
+     *            the service, not <code>null</code>
+     */
+    public SessionReaper(VaadinService service) {
+        assert service != null;
+        this.service = service;
+
+        int interval = service.getDeploymentConfiguration()
+                .getHeartbeatInterval();
+        if (interval <= 0) {
+            interval = DEFAULT_INTERVAL;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vaadin-session-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reap, interval, interval,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Registers a session to be cleaned up by this reaper.
+     *
+     * @param session
+     *            the session, not <code>null</code>
+     */
+    public void register(VaadinSession session) {
+        sessions.add(session);
+    }
+
+    /**
+     * Stops cleaning up the given session.
+     *
+     * @param session
+     *            the session, not <code>null</code>
+     */
+    public void unregister(VaadinSession session) {
+        sessions.remove(session);
+    }
+
+    /**
+     * Gets the number of sessions registered with this reaper.
+     *
+     * @return the number of registered sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Cleans up all registered sessions that are not currently locked.
+     */
+    public void reap() {
+        for (VaadinSession session : sessions) {
+            try {
+                reap(session);
+            } catch (Exception e) {
+                getLogger().error("Error cleaning up a session", e);
+            }
+        }
+    }
+
+    private void reap(VaadinSession session) {
+        if (!session.getLockInstance().tryLock()) {
+            // Cleaned up by the next round
+            return;
+        }
+        Map<Class<?>, CurrentInstance> old = CurrentInstance
+                .setCurrent(session);
+        try {
+            service.cleanupSession(session);
+            if (session.getState() != VaadinSessionState.OPEN) {
+                sessions.remove(session);
+            }
+        } finally {
+            session.unlock();
+            CurrentInstance.restoreInstances(old);
+        }
+    }
+
+    /**
+     * Stops the background cleanup.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        sessions.clear();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(SessionReaper.class.getName());
+    }
+}
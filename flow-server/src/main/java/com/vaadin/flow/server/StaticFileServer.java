@@ -15,6 +15,7 @@
  */
 package com.vaadin.flow.server;
 
+import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -28,6 +29,7 @@ import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.ResponseWriter;
+import com.vaadin.flow.server.StaticResourceCache.CachedResource;
 import com.vaadin.flow.shared.ApplicationConstants;
 
 /**
@@ -44,9 +46,19 @@ import com.vaadin.flow.shared.ApplicationConstants;
  * @since 1.0
  */
 public class StaticFileServer implements Serializable {
-    private final ResponseWriter responseWriter = new ResponseWriter();
+    private final StaticResourceWriter responseWriter = new StaticResourceWriter();
     private final VaadinServletService servletService;
     private DeploymentConfiguration deploymentConfiguration;
+    private final StaticResourceCache resourceCache;
+
+    /**
+     * Gives access to the content negotiation of the response writer.
+     */
+    private static class StaticResourceWriter extends ResponseWriter {
+        private boolean acceptsGzip(HttpServletRequest request) {
+            return acceptsGzippedResource(request);
+        }
+    }
 
     /**
      * Constructs a file server.
@@ -58,6 +70,17 @@ public class StaticFileServer implements Serializable {
         this.servletService = servletService;
         this.deploymentConfiguration = servletService
                 .getDeploymentConfiguration();
+
+        int cacheSize = deploymentConfiguration.getStaticResourceCacheSize();
+        if (cacheSize > 0) {
+            // Resources are only modified during development
+            resourceCache = new StaticResourceCache(cacheSize,
+                    !deploymentConfiguration.isProductionMode());
+            servletService.addServiceDestroyListener(
+                    event -> resourceCache.shutdown());
+        } else {
+            resourceCache = null;
+        }
     }
 
     /**
@@ -84,7 +107,14 @@ public class StaticFileServer implements Serializable {
             // We rather serve 404 than let it fall through
             return true;
         }
+        if (getCachedResource(requestFilename) != null) {
+            return true;
+        }
         resource = servletService.getStaticResource(requestFilename);
+        if (resource != null && resourceCache != null) {
+            // Avoid resolving the resource again when serving it
+            loadCachedResource(requestFilename, resource, request);
+        }
 
         return resource != null;
     }
@@ -106,7 +136,9 @@ public class StaticFileServer implements Serializable {
     public boolean serveStaticResource(HttpServletRequest request,
             HttpServletResponse response) throws IOException {
         String filenameWithPath = getRequestFilename(request);
-        URL resourceUrl = servletService.getStaticResource(filenameWithPath);
+        CachedResource cachedResource = getCachedResource(filenameWithPath);
+        URL resourceUrl = cachedResource != null ? cachedResource.getUrl()
+                : servletService.getStaticResource(filenameWithPath);
 
         if (resourceUrl == null) {
             // Not found in webcontent or in META-INF/resources in some JAR
@@ -115,10 +147,19 @@ public class StaticFileServer implements Serializable {
         }
 
         // There is a resource!
+        if (cachedResource == null && resourceCache != null) {
+            cachedResource = loadCachedResource(filenameWithPath, resourceUrl,
+                    request);
+        }
 
         // Intentionally writing cache headers also for 304 responses
         writeCacheHeaders(filenameWithPath, response);
 
+        if (cachedResource != null) {
+            writeCachedResource(cachedResource, request, response);
+            return true;
+        }
+
         long timestamp = writeModificationTimestamp(resourceUrl, request,
                 response);
         if (browserHasNewestVersion(request, timestamp)) {
@@ -132,6 +173,85 @@ public class StaticFileServer implements Serializable {
         return true;
     }
 
+    private CachedResource getCachedResource(String filenameWithPath) {
+        return resourceCache == null ? null
+                : resourceCache.get(filenameWithPath);
+    }
+
+    private CachedResource loadCachedResource(String filenameWithPath,
+            URL resourceUrl, HttpServletRequest request) {
+        ServletContext servletContext = request.getServletContext();
+        try {
+            URL gzippedUrl = servletContext
+                    .getResource(filenameWithPath + ".gz");
+            return resourceCache.load(filenameWithPath, resourceUrl,
+                    gzippedUrl, servletContext.getMimeType(filenameWithPath));
+        } catch (IOException e) {
+            getLogger().debug("Failed to cache static resource {}",
+                    filenameWithPath, e);
+            return null;
+        }
+    }
+
+    private void writeCachedResource(CachedResource resource,
+            HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzipped = resource.getGzippedData() != null
+                && responseWriter.acceptsGzip(request);
+        String eTag = gzipped ? resource.getGzippedETag() : resource.getETag();
+
+        long lastModified = resource.getLastModified();
+        if (lastModified != -1L) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+        response.setHeader("ETag", eTag);
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null ? matchesETag(ifNoneMatch, eTag)
+                : browserHasNewestVersion(request, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (resource.getContentType() != null) {
+            response.setContentType(resource.getContentType());
+        }
+        byte[] data = gzipped ? resource.getGzippedData() : resource.getData();
+        if (gzipped) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLengthLong(data.length);
+        try {
+            response.getOutputStream().write(data);
+        } catch (IOException e) {
+            getLogger().debug("Error writing static file to user", e);
+        }
+    }
+
+    /**
+     * Checks whether an If-None-Match header value matches the given ETag,
+     * using the weak comparison required for If-None-Match.
+     *
+     * @param ifNoneMatch
+     *            the header value
+     * @param eTag
+     *            the quoted ETag of the resource
+     * @return <code>true</code> if the header matches, <code>false</code>
+     *         otherwise
+     */
+    static boolean matchesETag(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Writes the modification timestamp info for the file into the response.
      *
@@ -0,0 +1,556 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.internal.MessageDigestUtil;
+
+/**
+ * Size bounded in-memory cache of static resources served by
+ * {@link StaticFileServer}.
+ * <p>
+ * Each cached resource holds the contents of the resource and of its
+ * precompressed <code>.gz</code> variant if there is one, together with the
+ * content type, a strong ETag for each variant and the modification timestamp.
+ * The least recently used resources are evicted when the total size of the
+ * cached contents exceeds the maximum size.
+ * <p>
+ * Resources in the file system can be watched for changes, in which case a
+ * resource is evicted as soon as its file is modified. Other resources, such
+ * as resources inside JAR files, are assumed not to change.
+ * <p>
+ * The cached resources are not serialized, a deserialized cache is empty.
+ *
+ * @see com.vaadin.flow.function.DeploymentConfiguration#getStaticResourceCacheSize()
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class StaticResourceCache implements Serializable {
+
+    /**
+     * A resource held in the cache.
+     */
+    public static class CachedResource implements Serializable {
+        private final URL url;
+        private final byte[] data;
+        private final byte[] gzippedData;
+        private final String contentType;
+        private final String eTag;
+        private final String gzippedETag;
+        private final long lastModified;
+
+        private CachedResource(URL url, byte[] data, byte[] gzippedData,
+                String contentType, long lastModified) {
+            this.url = url;
+            this.data = data;
+            this.gzippedData = gzippedData;
+            this.contentType = contentType;
+            this.lastModified = lastModified;
+            eTag = createETag(data);
+            gzippedETag = gzippedData == null ? null : createETag(gzippedData);
+        }
+
+        /**
+         * Gets the URL the resource was read from.
+         *
+         * @return the URL of the resource
+         */
+        public URL getUrl() {
+            return url;
+        }
+
+        /**
+         * Gets the contents of the resource.
+         *
+         * @return the contents, not to be modified
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Gets the contents of the precompressed variant of the resource.
+         *
+         * @return the gzipped contents, not to be modified, or
+         *         <code>null</code> if there is no precompressed variant
+         */
+        public byte[] getGzippedData() {
+            return gzippedData;
+        }
+
+        /**
+         * Gets the content type of the resource.
+         *
+         * @return the content type, or <code>null</code> if not known
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * Gets the strong ETag of the uncompressed resource.
+         *
+         * @return the quoted ETag
+         */
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * Gets the strong ETag of the precompressed variant of the resource.
+         *
+         * @return the quoted ETag, or <code>null</code> if there is no
+         *         precompressed variant
+         */
+        public String getGzippedETag() {
+            return gzippedETag;
+        }
+
+        /**
+         * Gets the modification timestamp of the resource, without
+         * milliseconds.
+         *
+         * @return the modification timestamp, or <code>-1</code> if not known
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        private long getSize() {
+            return data.length
+                    + (gzippedData == null ? 0 : (long) gzippedData.length);
+        }
+
+        private static String createETag(byte[] data) {
+            return '"' + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(MessageDigestUtil.sha256(data)) + '"';
+        }
+    }
+
+    private final long maxSize;
+    private final boolean watchFiles;
+
+    private transient Map<String, CachedResource> resources;
+    private transient long size;
+
+    /*
+     * Incremented whenever resources are invalidated so that a load that
+     * started before an invalidation does not cache contents that might have
+     * been read before the modification. Invalidations are only tracked for
+     * resources that are being loaded.
+     */
+    private transient long generation;
+    private transient Map<String, Integer> loadsInProgress;
+    private transient Map<String, Long> invalidatedGenerations;
+    private transient long allInvalidatedGeneration;
+
+    /*
+     * The cache keys of the resources read from each watched file.
+     */
+    private transient Map<Path, Set<String>> watchedFiles;
+    private transient Set<Path> watchedDirectories;
+    private transient WatchService watchService;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize
+     *            the maximum total size of the cached contents in bytes, must
+     *            be positive
+     * @param watchFiles
+     *            <code>true</code> to evict resources when their files are
+     *            modified, <code>false</code> to assume that resources never
+     *            change
+     */
+    public StaticResourceCache(long maxSize, boolean watchFiles) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(
+                    "The maximum size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.watchFiles = watchFiles;
+        initState();
+    }
+
+    private void initState() {
+        resources = new LinkedHashMap<>(16, 0.75f, true);
+        loadsInProgress = new HashMap<>();
+        invalidatedGenerations = new HashMap<>();
+        watchedFiles = new HashMap<>();
+        watchedDirectories = new HashSet<>();
+    }
+
+    /**
+     * Gets a cached resource.
+     *
+     * @param filenameWithPath
+     *            the name and path of the requested file
+     * @return the cached resource, or <code>null</code> if the resource is not
+     *         cached
+     */
+    public synchronized CachedResource get(String filenameWithPath) {
+        return resources.get(filenameWithPath);
+    }
+
+    /**
+     * Reads a resource and its precompressed variant and adds them to the
+     * cache. Resources larger than the maximum size of the cache are not read.
+     *
+     * @param filenameWithPath
+     *            the name and path of the requested file
+     * @param url
+     *            the URL of the resource, not <code>null</code>
+     * @param gzippedUrl
+     *            the URL of the precompressed variant of the resource, or
+     *            <code>null</code> if there is none
+     * @param contentType
+     *            the content type of the resource, or <code>null</code> if not
+     *            known
+     * @return the loaded resource, or <code>null</code> if the resource is too
+     *         large to be cached. The resource is not cached if it was
+     *         invalidated while being loaded.
+     * @throws IOException
+     *             if reading the resource fails
+     */
+    public CachedResource load(String filenameWithPath, URL url,
+            URL gzippedUrl, String contentType) throws IOException {
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+            loadsInProgress.merge(filenameWithPath, Integer.valueOf(1),
+                    Integer::sum);
+        }
+        try {
+            return doLoad(filenameWithPath, url, gzippedUrl, contentType,
+                    loadGeneration);
+        } finally {
+            synchronized (this) {
+                Integer loads = loadsInProgress.get(filenameWithPath);
+                if (loads.intValue() > 1) {
+                    loadsInProgress.put(filenameWithPath,
+                            Integer.valueOf(loads.intValue() - 1));
+                } else {
+                    loadsInProgress.remove(filenameWithPath);
+                    invalidatedGenerations.remove(filenameWithPath);
+                }
+            }
+        }
+    }
+
+    private CachedResource doLoad(String filenameWithPath, URL url,
+            URL gzippedUrl, String contentType, long loadGeneration)
+            throws IOException {
+        // Watch before reading so that no modification is missed
+        Path file = watchFiles ? watch(filenameWithPath, url) : null;
+        Path gzippedFile = watchFiles && gzippedUrl != null
+                ? watch(filenameWithPath, gzippedUrl)
+                : null;
+
+        URLConnection connection = url.openConnection();
+        long lastModified = connection.getLastModified();
+        // Remove milliseconds to avoid comparison problems (milliseconds
+        // are not returned by the browser in the "If-Modified-Since"
+        // header).
+        lastModified = lastModified > 0
+                ? lastModified - lastModified % 1000
+                : -1L;
+
+        byte[] data = read(connection);
+        byte[] gzippedData = null;
+        if (data != null && gzippedUrl != null) {
+            gzippedData = read(gzippedUrl.openConnection());
+        }
+        if (data == null || gzippedUrl != null && gzippedData == null) {
+            unwatch(filenameWithPath, file, gzippedFile);
+            return null;
+        }
+
+        CachedResource resource = new CachedResource(url, data, gzippedData,
+                contentType, lastModified);
+        if (resource.getSize() > maxSize) {
+            unwatch(filenameWithPath, file, gzippedFile);
+            return null;
+        }
+        synchronized (this) {
+            if (isInvalidatedSince(filenameWithPath, loadGeneration)) {
+                // Modified while being read, the contents might be stale
+                return resource;
+            }
+            CachedResource old = resources.put(filenameWithPath, resource);
+            if (old != null) {
+                size -= old.getSize();
+            }
+            size += resource.getSize();
+            evict();
+        }
+        return resource;
+    }
+
+    /**
+     * Removes a resource from the cache.
+     *
+     * @param filenameWithPath
+     *            the name and path of the requested file
+     */
+    public synchronized void invalidate(String filenameWithPath) {
+        if (loadsInProgress.containsKey(filenameWithPath)) {
+            invalidatedGenerations.put(filenameWithPath, ++generation);
+        }
+        CachedResource resource = resources.remove(filenameWithPath);
+        if (resource != null) {
+            size -= resource.getSize();
+        }
+    }
+
+    /**
+     * Gets the total size of the cached contents.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of cached resources.
+     *
+     * @return the number of cached resources
+     */
+    public synchronized int getResourceCount() {
+        return resources.size();
+    }
+
+    /**
+     * Removes all resources from the cache and stops watching files.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            resources.clear();
+            size = 0;
+            invalidatedGenerations.clear();
+            watchedFiles.clear();
+            watchedDirectories.clear();
+        }
+        WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                getLogger().debug("Error closing the file watcher", e);
+            }
+        }
+    }
+
+    private boolean isInvalidatedSince(String filenameWithPath,
+            long loadGeneration) {
+        return allInvalidatedGeneration > loadGeneration || invalidatedGenerations
+                .getOrDefault(filenameWithPath, 0L) > loadGeneration;
+    }
+
+    private void evict() {
+        Iterator<CachedResource> iterator = resources.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().getSize();
+            iterator.remove();
+        }
+    }
+
+    private byte[] read(URLConnection connection) throws IOException {
+        long length = connection.getContentLengthLong();
+        if (length > maxSize) {
+            // Close the stream that might have been opened by the connection
+            connection.getInputStream().close();
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                length > 0 ? (int) length : 4096);
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (out.size() > maxSize) {
+                    return null;
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private Path watch(String filenameWithPath, URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        Path file;
+        try {
+            file = Paths.get(url.toURI()).toAbsolutePath();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            getLogger().debug("Cannot watch {} for changes", url, e);
+            return null;
+        }
+        Path directory = file.getParent();
+        if (directory == null) {
+            return null;
+        }
+        synchronized (this) {
+            try {
+                if (watchedDirectories.add(directory)) {
+                    directory.register(getWatchService(),
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+            } catch (IOException | ClosedWatchServiceException e) {
+                watchedDirectories.remove(directory);
+                getLogger().debug("Cannot watch {} for changes", directory, e);
+                return null;
+            }
+            watchedFiles.computeIfAbsent(file, key -> new HashSet<>())
+                    .add(filenameWithPath);
+        }
+        return file;
+    }
+
+    private synchronized void unwatch(String filenameWithPath, Path... files) {
+        for (Path file : files) {
+            Set<String> keys = file == null ? null : watchedFiles.get(file);
+            if (keys != null) {
+                keys.remove(filenameWithPath);
+                if (keys.isEmpty()) {
+                    watchedFiles.remove(file);
+                }
+            }
+        }
+    }
+
+    private WatchService getWatchService() throws IOException {
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            Thread thread = new Thread(this::processWatchEvents,
+                    "vaadin-static-resource-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return watchService;
+    }
+
+    private void processWatchEvents() {
+        WatchService service;
+        synchronized (this) {
+            service = watchService;
+        }
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        invalidateAll();
+                    } else {
+                        invalidate(directory.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    synchronized (this) {
+                        watchedDirectories.remove(directory);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shut down
+        }
+    }
+
+    /**
+     * Removes the resources read from a file that has been modified.
+     *
+     * @param file
+     *            the absolute path of the modified file
+     */
+    synchronized void invalidate(Path file) {
+        Set<String> keys = watchedFiles.remove(file);
+        if (keys != null) {
+            keys.forEach(this::invalidate);
+        }
+    }
+
+    private synchronized void invalidateAll() {
+        allInvalidatedGeneration = ++generation;
+        invalidatedGenerations.clear();
+        resources.clear();
+        size = 0;
+        watchedFiles.clear();
+    }
+
+    /**
+     * Initializes an empty cache when deserialized. Files are watched again
+     * when resources are loaded.
+     *
+     * @param stream
+     *            the object to read
+     * @throws IOException
+     *             if an IO error occurred
+     * @throws ClassNotFoundException
+     *             if the class of the stream object could not be found
+     */
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        initState();
+    }
+
+    /**
+     * Gets the number of resources for which invalidations are tracked.
+     *
+     * @return the number of tracked invalidations
+     */
+    synchronized int getTrackedInvalidationCount() {
+        return invalidatedGenerations.size();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(StaticResourceCache.class.getName());
+    }
+}
@@ -39,7 +39,11 @@ import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -63,12 +67,16 @@ import com.vaadin.flow.i18n.I18NProvider;
 import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.internal.LocaleUtil;
 import com.vaadin.flow.internal.ReflectionCache;
+import com.vaadin.flow.internal.SharedConstantPool;
+import com.vaadin.flow.internal.VirtualThreads;
 import com.vaadin.flow.router.Router;
 import com.vaadin.flow.server.ServletHelper.RequestType;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
 import com.vaadin.flow.server.communication.HeartbeatHandler;
+import com.vaadin.flow.server.communication.PushCoalescer;
 import com.vaadin.flow.server.communication.PwaHandler;
 import com.vaadin.flow.server.communication.SessionRequestHandler;
+import com.vaadin.flow.server.communication.SharedConstantsRequestHandler;
 import com.vaadin.flow.server.communication.StreamRequestHandler;
 import com.vaadin.flow.server.communication.UidlRequestHandler;
 import com.vaadin.flow.server.startup.FakeBrowser;
@@ -196,6 +204,28 @@ public abstract class VaadinService implements Serializable {
 
     private Registration htmlImportDependencyCacheClearRegistration;
 
+    private final SharedConstantPool sharedConstantPool = new SharedConstantPool();
+
+    private transient SessionAccessExecutor sessionAccessExecutor;
+
+    private transient PushCoalescer pushCoalescer;
+
+    private transient SessionReaper sessionReaper;
+
+    private transient HeartbeatExpiryWheel heartbeatExpiryWheel;
+
+    private transient ScheduledExecutorService pushFlushScheduler;
+
+    // Guarded by this, prevents creating a scheduler after destroy
+    private transient boolean pushFlushSchedulerDestroyed;
+
+    /*
+     * Guards the creation of session locks. A lock is used instead of a
+     * synchronized block so that a virtual thread waiting for it doesn't pin
+     * its carrier thread.
+     */
+    private static final Lock SESSION_LOCK_CREATION_LOCK = new ReentrantLock();
+
     /**
      * Creates a new vaadin service based on a deployment configuration.
      *
@@ -270,6 +300,31 @@ public abstract class VaadinService implements Serializable {
                 .getBootstrapListeners(event.getAddedBootstrapListeners())
                 .collect(Collectors.toList());
 
+        sessionAccessExecutor = createSessionAccessExecutor();
+
+        int pushCoalescingWindow = getDeploymentConfiguration()
+                .getPushCoalescingWindow();
+        if (pushCoalescingWindow > 0) {
+            pushCoalescer = new PushCoalescer(pushCoalescingWindow);
+        }
+
+        if (getDeploymentConfiguration().useBackgroundSessionCleanup()) {
+            SessionReaper reaper = new SessionReaper(this);
+            addSessionDestroyListener(
+                    destroyEvent -> reaper
+                            .unregister(destroyEvent.getSession()));
+            sessionReaper = reaper;
+        }
+
+        if (getDeploymentConfiguration().useHeartbeatExpiryWheel()
+                && getDeploymentConfiguration().getHeartbeatInterval() > 0) {
+            HeartbeatExpiryWheel wheel = new HeartbeatExpiryWheel(this);
+            // UIs that could not be removed normally
+            addSessionDestroyListener(destroyEvent -> destroyEvent.getSession()
+                    .getUIs().forEach(wheel::unschedule));
+            heartbeatExpiryWheel = wheel;
+        }
+
         router = new Router(getRouteRegistry());
         if (!getDeploymentConfiguration().isProductionMode()) {
             Logger logger = getLogger();
@@ -334,6 +389,9 @@ public abstract class VaadinService implements Serializable {
         handlers.add(new UidlRequestHandler());
         handlers.add(new UnsupportedBrowserHandler());
         handlers.add(new StreamRequestHandler());
+        if (getDeploymentConfiguration().useSharedConstantPool()) {
+            handlers.add(new SharedConstantsRequestHandler());
+        }
         PwaRegistry pwaRegistry = getPwaRegistry();
         if (pwaRegistry != null
                 && pwaRegistry.getPwaConfiguration().isEnabled()) {
@@ -760,12 +818,15 @@ public abstract class VaadinService implements Serializable {
              * the CPU flushes its caches and reads the value directly from main
              * memory).
              */
-            synchronized (VaadinService.class) {
+            SESSION_LOCK_CREATION_LOCK.lock();
+            try {
                 lock = getSessionLock(wrappedSession);
                 if (lock == null) {
                     lock = new ReentrantLock();
                     setSessionLock(wrappedSession, lock);
                 }
+            } finally {
+                SESSION_LOCK_CREATION_LOCK.unlock();
             }
         }
         lock.lock();
@@ -1246,9 +1307,10 @@ public abstract class VaadinService implements Serializable {
     }
 
     /**
-     * Called at the end of a request, after sending the response. Closes
-     * inactive UIs in the given session, removes closed UIs from the session,
-     * and closes the session if it is itself inactive.
+     * Called at the end of a request, after sending the response, or by the
+     * {@link SessionReaper} if enabled. Closes inactive UIs in the given
+     * session, removes closed UIs from the session, and closes the session if
+     * it is itself inactive.
      *
      * @param session
      */
@@ -1330,7 +1392,7 @@ public abstract class VaadinService implements Serializable {
      * @return The heartbeat timeout in seconds or a negative number if timeout
      *         never occurs.
      */
-    private int getHeartbeatTimeout() {
+    int getHeartbeatTimeout() {
         // Permit three missed heartbeats before closing the UI
         return (int) (getDeploymentConfiguration().getHeartbeatInterval()
                 * (3.1));
@@ -1462,7 +1524,12 @@ public abstract class VaadinService implements Serializable {
             assert VaadinSession.getCurrent() == session;
             session.lock();
             try {
-                cleanupSession(session);
+                if (sessionReaper != null
+                        && session.getState() == VaadinSessionState.OPEN) {
+                    sessionReaper.register(session);
+                } else {
+                    cleanupSession(session);
+                }
                 final long duration = (System.nanoTime() - (Long) request
                         .getAttribute(REQUEST_START_TIME_ATTRIBUTE)) / 1000000;
                 session.setLastRequestDuration(duration);
@@ -1939,7 +2006,15 @@ public abstract class VaadinService implements Serializable {
          * the lock is ultimately released. If the lock is not held by any
          * thread and we acquire it, we just release it again to purge the queue
          * right away.
+         *
+         * With a session access executor, the queue is instead purged by the
+         * executor so that the current thread is never blocked by running the
+         * tasks.
          */
+        if (sessionAccessExecutor != null) {
+            sessionAccessExecutor.schedule(session);
+            return;
+        }
         try {
             // tryLock() would be shorter, but it does not guarantee fairness
             if (session.getLockInstance().tryLock(0, TimeUnit.SECONDS)) {
@@ -1978,6 +2053,9 @@ public abstract class VaadinService implements Serializable {
             while ((pendingAccess = session.getPendingAccessQueue()
                     .poll()) != null) {
                 if (!pendingAccess.isCancelled()) {
+                    if (sessionAccessExecutor != null) {
+                        sessionAccessExecutor.taskStarted(pendingAccess);
+                    }
                     pendingAccess.run();
 
                     try {
@@ -1989,8 +2067,7 @@ public abstract class VaadinService implements Serializable {
                 }
             }
         } finally {
-            CurrentInstance.clearAll();
-            CurrentInstance.restoreInstances(oldInstances);
+            CurrentInstance.setInstances(oldInstances);
         }
     }
 
@@ -2028,6 +2105,22 @@ public abstract class VaadinService implements Serializable {
     public void destroy() {
         htmlImportDependencyCacheClearRegistration.remove();
 
+        if (sessionAccessExecutor != null) {
+            sessionAccessExecutor.shutdown();
+        }
+        if (sessionReaper != null) {
+            sessionReaper.shutdown();
+        }
+        if (heartbeatExpiryWheel != null) {
+            heartbeatExpiryWheel.shutdown();
+        }
+        synchronized (this) {
+            pushFlushSchedulerDestroyed = true;
+            if (pushFlushScheduler != null) {
+                pushFlushScheduler.shutdownNow();
+            }
+        }
+
         ServiceDestroyEvent event = new ServiceDestroyEvent(this);
         serviceDestroyListeners
                 .forEach(listener -> listener.serviceDestroy(event));
@@ -2154,6 +2247,128 @@ public abstract class VaadinService implements Serializable {
         return VaadinSession.class.getName() + "." + getServiceName();
     }
 
+    /**
+     * Gets the application wide constant pool that is shared by all UIs served
+     * by this service.
+     *
+     * @see DeploymentConfiguration#useSharedConstantPool()
+     *
+     * @return the shared constant pool, not <code>null</code>
+     */
+    public SharedConstantPool getSharedConstantPool() {
+        return sharedConstantPool;
+    }
+
+    /**
+     * Creates the executor that runs the pending access tasks of the sessions
+     * of this service, if enabled in the deployment configuration.
+     *
+     * @return the session access executor, or <code>null</code> if pending
+     *         access tasks should be run by the threads releasing the session
+     *         lock
+     */
+    protected SessionAccessExecutor createSessionAccessExecutor() {
+        DeploymentConfiguration configuration = getDeploymentConfiguration();
+        if (configuration.useVirtualThreads()) {
+            Optional<ExecutorService> executor = VirtualThreads.newExecutor();
+            if (executor.isPresent()) {
+                return new SessionAccessExecutor(executor.get());
+            }
+            getLogger().info(
+                    "Virtual threads are not supported by the JVM, falling back to platform threads");
+            return new SessionAccessExecutor();
+        }
+        if (configuration.useSessionAccessExecutor()) {
+            return new SessionAccessExecutor();
+        }
+        return null;
+    }
+
+    /**
+     * Gets the executor that runs the pending access tasks of the sessions of
+     * this service.
+     *
+     * @see DeploymentConfiguration#useSessionAccessExecutor()
+     *
+     * @return the session access executor, or <code>null</code> if pending
+     *         access tasks are run by the threads releasing the session lock
+     */
+    public SessionAccessExecutor getSessionAccessExecutor() {
+        return sessionAccessExecutor;
+    }
+
+    /**
+     * Gets the push coalescer that limits the rate of automatic pushes to the
+     * UIs of this service.
+     *
+     * @see DeploymentConfiguration#getPushCoalescingWindow()
+     *
+     * @return the push coalescer, or <code>null</code> if changes are pushed
+     *         immediately
+     */
+    public PushCoalescer getPushCoalescer() {
+        return pushCoalescer;
+    }
+
+    /**
+     * Gets the reaper that closes inactive UIs and sessions of this service in
+     * the background.
+     *
+     * @see DeploymentConfiguration#useBackgroundSessionCleanup()
+     *
+     * @return the session reaper, or <code>null</code> if sessions are cleaned
+     *         up at the end of each request
+     */
+    public SessionReaper getSessionReaper() {
+        return sessionReaper;
+    }
+
+    /**
+     * Gets the timing wheel that closes the UIs of this service when their
+     * heartbeat timeout expires.
+     *
+     * @see DeploymentConfiguration#useHeartbeatExpiryWheel()
+     *
+     * @return the heartbeat expiry wheel, or <code>null</code> if inactive UIs
+     *         are closed at the end of requests
+     */
+    public HeartbeatExpiryWheel getHeartbeatExpiryWheel() {
+        return heartbeatExpiryWheel;
+    }
+
+    /**
+     * Gets the scheduler that push connections of this service use for pushes
+     * that are delayed, for instance while the outbox of a connection is full
+     * or while automatic pushes are coalesced.
+     * The scheduler is created on first use and shut down when this service
+     * is destroyed. No new scheduler is created after this service has been
+     * destroyed.
+     *
+     * @see DeploymentConfiguration#getPushOutboxSize()
+     * @see DeploymentConfiguration#getLongPollingBatchingWindow()
+     * @see DeploymentConfiguration#getPushCoalescingWindow()
+     *
+     * @return the push scheduler, not <code>null</code>
+     * @throws RejectedExecutionException
+     *             if this service has been destroyed
+     */
+    public synchronized ScheduledExecutorService getPushFlushScheduler() {
+        if (pushFlushSchedulerDestroyed) {
+            throw new RejectedExecutionException(
+                    "The service has been destroyed");
+        }
+        if (pushFlushScheduler == null) {
+            pushFlushScheduler = Executors
+                    .newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "vaadin-push-flush");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return pushFlushScheduler;
+    }
+
     /**
      * Gets the router used for UIs served by this service.
      *
@@ -45,6 +45,7 @@ import org.slf4j.LoggerFactory;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.communication.PushCoalescer;
 import com.vaadin.flow.shared.communication.PushMode;
 
 /**
@@ -566,6 +567,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         assert UI.getCurrent().getUIId() == ui.getUIId() : "UIs don't match";
         ui.getInternals().setSession(null);
         uIs.remove(ui.getUIId());
+
+        if (service != null && service.getHeartbeatExpiryWheel() != null) {
+            service.getHeartbeatExpiryWheel().unschedule(ui);
+        }
     }
 
     /**
@@ -646,6 +651,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void unlock() {
         checkHasLock();
         boolean ultimateRelease = false;
+        SessionAccessExecutor executor = null;
+        boolean pendingWork = false;
         try {
             /*
              * Run pending tasks and push if the reentrant lock will actually be
@@ -653,25 +660,26 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
              */
             if (((ReentrantLock) getLockInstance()).getHoldCount() == 1) {
                 ultimateRelease = true;
-                getService().runPendingAccessTasks(this);
-
-                for (UI ui : getUIs()) {
-                    if (ui.getPushConfiguration()
-                            .getPushMode() == PushMode.AUTOMATIC) {
-                        Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
-                                .setCurrent(ui);
-                        try {
-                            ui.push();
-                        } finally {
-                            CurrentInstance.restoreInstances(oldCurrent);
-                        }
-                    }
+                executor = getService().getSessionAccessExecutor();
+                if (executor == null) {
+                    runPendingAccessTasksAndPush();
+                } else {
+                    // Leave the work to the executor
+                    pendingWork = hasPendingAccessTasksOrPushes();
                 }
             }
         } finally {
             getLockInstance().unlock();
         }
 
+        if (executor != null) {
+            // Recheck the queue for tasks enqueued before releasing the lock
+            if (pendingWork || !getPendingAccessQueue().isEmpty()) {
+                executor.schedule(this);
+            }
+            return;
+        }
+
         /*
          * If the session is locked when a new access task is added, it is
          * assumed that the queue will be purged when the lock is released. This
@@ -685,6 +693,41 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         }
     }
 
+    /**
+     * Runs the pending access tasks and pushes the changes of all UIs using
+     * automatic push. The session must be locked.
+     */
+    void runPendingAccessTasksAndPush() {
+        getService().runPendingAccessTasks(this);
+
+        PushCoalescer pushCoalescer = getService().getPushCoalescer();
+        for (UI ui : getUIs()) {
+            if (ui.getPushConfiguration().getPushMode() == PushMode.AUTOMATIC) {
+                Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
+                        .setCurrent(ui);
+                try {
+                    if (pushCoalescer != null) {
+                        pushCoalescer.push(ui);
+                    } else {
+                        ui.push();
+                    }
+                } finally {
+                    CurrentInstance.restoreInstances(oldCurrent);
+                }
+            }
+        }
+    }
+
+    private boolean hasPendingAccessTasksOrPushes() {
+        if (!getPendingAccessQueue().isEmpty()) {
+            return true;
+        }
+        return getUIs().stream()
+                .anyMatch(ui -> ui.getPushConfiguration()
+                        .getPushMode() == PushMode.AUTOMATIC
+                        && ui.getInternals().isDirty());
+    }
+
     /**
      * Stores a value in this service session. This can be used to associate
      * data with the current user so that it can be retrieved at a later point
@@ -803,6 +846,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         }
 
         uIs.put(ui.getUIId(), ui);
+
+        if (service != null && service.getHeartbeatExpiryWheel() != null) {
+            service.getHeartbeatExpiryWheel().schedule(ui);
+        }
     }
 
     public VaadinService getService() {
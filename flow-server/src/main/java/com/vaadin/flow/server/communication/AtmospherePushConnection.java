@@ -20,8 +20,13 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Reader;
 import java.io.Serializable;
-import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -33,9 +38,10 @@ import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.internal.UsageStatistics;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.communication.PushConstants;
 
-import elemental.json.JsonObject;
 
 /**
  * A {@link PushConnection} implementation using the Atmosphere push support
@@ -52,15 +58,43 @@ public class AtmospherePushConnection implements PushConnection {
     private transient FragmentedMessage incomingMessage;
     private transient Future<Object> outgoingMessage;
 
+    /*
+     * Messages that might not have been written to the client yet. Only
+     * tracked if the outbox size is limited.
+     */
+    private transient Deque<Future<Object>> outbox;
+    private transient boolean flushPending;
+    private long mergedFlushCount;
+
+    /*
+     * The times of the reconnects during the last minute, oldest first.
+     */
+    private transient Deque<Long> reconnectTimes;
+    private transient boolean connectedBefore;
+    private long reconnectCount;
+
+    /**
+     * The delay in milliseconds before retrying a push that was held back
+     * because the outbox was full.
+     */
+    static final int FLUSH_RETRY_DELAY = 50;
+
     /**
      * Represents a message that can arrive as multiple fragments.
+     * <p>
+     * The fragments are read directly into chunks sized by the remaining length
+     * of the message, and the complete message is read back from the chunks
+     * without joining them into a single string.
      */
     protected static class FragmentedMessage implements Serializable {
-        private final StringBuilder message = new StringBuilder();
+        private final List<char[]> chunks = new ArrayList<>();
+        private int lastChunkLength;
+        private int receivedLength;
         private final int messageLength;
 
         /**
-         * Creates a message by reading from the given reader.
+         * Creates a message by reading from the given reader, using the default
+         * maximum message length.
          * <p>
          * Immediately reads the length of the message (up until
          * {@value PushConstants#MESSAGE_DELIMITER}) from the reader.
@@ -72,19 +106,48 @@ public class AtmospherePushConnection implements PushConnection {
          *             if unexpected data was read
          */
         public FragmentedMessage(Reader reader) throws IOException {
+            this(reader, Constants.DEFAULT_PUSH_MAX_MESSAGE_LENGTH);
+        }
+
+        /**
+         * Creates a message by reading from the given reader.
+         * <p>
+         * Immediately reads the length of the message (up until
+         * {@value PushConstants#MESSAGE_DELIMITER}) from the reader.
+         *
+         * @param reader
+         *            the reader to read the message from
+         * @param maxMessageLength
+         *            the maximum length of the message in characters
+         * @throws IOException
+         *             if an exception occurred while reading from the reader,
+         *             if unexpected data was read or if the message is longer
+         *             than the maximum length
+         */
+        public FragmentedMessage(Reader reader, int maxMessageLength)
+                throws IOException {
             // Messages are prefixed by the total message length plus a
             // delimiter
-            String length = "";
+            long length = 0;
+            int digits = 0;
             int c;
             while ((c = reader.read()) != -1
                     && c != PushConstants.MESSAGE_DELIMITER) {
-                length += (char) c;
+                if (c < '0' || c > '9') {
+                    throw new IOException(
+                            "Invalid character in message length: " + c);
+                }
+                length = length * 10 + (c - '0');
+                digits++;
+                if (length > maxMessageLength) {
+                    throw new IOException("Message is longer than the maximum "
+                            + maxMessageLength + " characters");
+                }
             }
-            try {
-                messageLength = Integer.parseInt(length);
-            } catch (NumberFormatException e) {
-                throw new IOException("Invalid message length " + length, e);
+            if (digits == 0) {
+                throw new IOException("Missing message length");
             }
+            messageLength = (int) length;
         }
 
         /**
@@ -95,21 +158,92 @@ public class AtmospherePushConnection implements PushConnection {
          *            The Reader from which to read.
          * @return true if this message is complete, false otherwise.
          * @throws IOException
-         *             if an IO error occurred
+         *             if an IO error occurred or if more data than the length
+         *             of the message was read
          */
         public boolean append(Reader reader) throws IOException {
-            char[] buffer = new char[PushConstants.WEBSOCKET_BUFFER_SIZE];
-            int read;
-            while ((read = reader.read(buffer)) != -1) {
-                message.append(buffer, 0, read);
-                assert message.length() <= messageLength : "Received message "
-                        + message.length() + "chars, expected " + messageLength;
+            while (true) {
+                int remaining = messageLength - receivedLength;
+                if (remaining == 0) {
+                    if (reader.read() != -1) {
+                        throw new IOException("Received more than the expected "
+                                + messageLength + " characters");
+                    }
+                    return true;
+                }
+
+                char[] chunk = chunks.isEmpty() ? null
+                        : chunks.get(chunks.size() - 1);
+                if (chunk == null || lastChunkLength == chunk.length) {
+                    chunk = new char[Math.min(remaining,
+                            PushConstants.WEBSOCKET_BUFFER_SIZE)];
+                    chunks.add(chunk);
+                    lastChunkLength = 0;
+                }
+
+                int read = reader.read(chunk, lastChunkLength,
+                        chunk.length - lastChunkLength);
+                if (read == -1) {
+                    return false;
+                }
+                lastChunkLength += read;
+                receivedLength += read;
             }
-            return message.length() == messageLength;
         }
 
+        /**
+         * Gets a reader for the data received so far.
+         *
+         * @return a reader for the message
+         */
         public Reader getReader() {
-            return new StringReader(message.toString());
+            return new ChunkReader(chunks, receivedLength);
+        }
+    }
+
+    /**
+     * Reads the chunks of a fragmented message in order.
+     */
+    private static class ChunkReader extends Reader implements Serializable {
+        private final List<char[]> chunks;
+        private int remaining;
+        private int chunkIndex;
+        private int chunkPosition;
+
+        private ChunkReader(List<char[]> chunks, int length) {
+            this.chunks = chunks;
+            remaining = length;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (remaining == 0) {
+                return -1;
+            }
+            int read = 0;
+            while (read < length && remaining > 0) {
+                char[] chunk = chunks.get(chunkIndex);
+                int count = Math.min(Math.min(length - read, remaining),
+                        chunk.length - chunkPosition);
+                System.arraycopy(chunk, chunkPosition, buffer, offset + read,
+                        count);
+                read += count;
+                remaining -= count;
+                chunkPosition += count;
+                if (chunkPosition == chunk.length) {
+                    chunkIndex++;
+                    chunkPosition = 0;
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            remaining = 0;
         }
     }
 
@@ -183,17 +317,47 @@ public class AtmospherePushConnection implements PushConnection {
      *            false if it is a response to a client request.
      */
     public void push(boolean async) {
+        push(async, true);
+    }
+
+    private void push(boolean async, boolean allowBatching) {
         if (!isConnected()) {
             if (async && state != State.RESPONSE_PENDING) {
                 state = State.PUSH_PENDING;
             } else {
                 state = State.RESPONSE_PENDING;
             }
+        } else if (async && isOutboxFull()) {
+            /*
+             * The client is behind. The changes stay in the state tree and are
+             * folded into the message sent once the outbox has room.
+             */
+            mergedFlushCount++;
+            if (!flushPending) {
+                flushPending = true;
+                scheduleFlush(FLUSH_RETRY_DELAY);
+            }
+        } else if (async && allowBatching && getBatchingWindow() > 0) {
+            /*
+             * Each message completes a long polling request, so hold the
+             * changes for the batching window and send them as one message to
+             * avoid the client reconnecting for every change.
+             */
+            if (flushPending) {
+                mergedFlushCount++;
+            } else {
+                flushPending = true;
+                scheduleFlush(getBatchingWindow());
+            }
         } else {
             try {
-                JsonObject response = new UidlWriter().createUidl(getUI(),
-                        async);
-                sendMessage("for(;;);[" + response.toJson() + "]");
+                // The transport needs the complete message, but writing it
+                // directly avoids creating the full JSON tree
+                StringWriter writer = new StringWriter();
+                writer.write("for(;;);[");
+                new UidlWriter().writeUidl(getUI(), async, writer);
+                writer.write(']');
+                sendMessage(writer.toString());
             } catch (Exception e) {
                 throw new RuntimeException("Push failed", e);
             }
@@ -212,6 +376,157 @@ public class AtmospherePushConnection implements PushConnection {
         // "Broadcast" the changes to the single client only
         outgoingMessage = getResource().getBroadcaster().broadcast(message,
                 getResource());
+        if (getOutboxSize() > 0) {
+            getOutbox().add(outgoingMessage);
+        }
+    }
+
+    private int getOutboxSize() {
+        VaadinSession session = getUI().getSession();
+        if (session == null) {
+            return 0;
+        }
+        return session.getConfiguration().getPushOutboxSize();
+    }
+
+    private Deque<Future<Object>> getOutbox() {
+        if (outbox == null) {
+            outbox = new ArrayDeque<>();
+        }
+        // Messages are assumed to be written in order
+        while (!outbox.isEmpty() && outbox.peekFirst().isDone()) {
+            outbox.pollFirst();
+        }
+        return outbox;
+    }
+
+    private boolean isOutboxFull() {
+        int outboxSize = getOutboxSize();
+        return outboxSize > 0 && getOutbox().size() >= outboxSize;
+    }
+
+    private int getBatchingWindow() {
+        if (resource == null
+                || resource.transport() != TRANSPORT.LONG_POLLING) {
+            return 0;
+        }
+        VaadinSession session = getUI().getSession();
+        if (session == null) {
+            return 0;
+        }
+        return session.getConfiguration().getLongPollingBatchingWindow();
+    }
+
+    private void scheduleFlush(int delay) {
+        UI ui = getUI();
+        VaadinSession uiSession = ui.getSession();
+        if (uiSession == null) {
+            flushPending = false;
+            return;
+        }
+        try {
+            uiSession.getService().getPushFlushScheduler().schedule(() -> {
+                VaadinSession session = ui.getSession();
+                if (session != null) {
+                    session.access(this::flushPendingChanges);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The service has been destroyed
+            getLogger().debug("Cannot schedule a push", e);
+            flushPending = false;
+        }
+    }
+
+    private void flushPendingChanges() {
+        if (!flushPending) {
+            return;
+        }
+        flushPending = false;
+        if (isConnected() && getUI().getInternals().isDirty()) {
+            push(true, false);
+        }
+    }
+
+    /**
+     * Gets the number of messages sent to the client that might not have been
+     * written to the client yet. Messages are only tracked if the outbox size
+     * is limited.
+     *
+     * @see com.vaadin.flow.function.DeploymentConfiguration#getPushOutboxSize()
+     *
+     * @return the number of pending messages
+     */
+    public int getOutboxDepth() {
+        if (outbox == null) {
+            return 0;
+        }
+        return getOutbox().size();
+    }
+
+    /**
+     * Gets the number of pushes that were held back because the outbox was
+     * full or a long polling batch was already pending, so that their changes
+     * were merged into a later message.
+     *
+     * @return the number of merged pushes
+     */
+    public long getMergedFlushCount() {
+        return mergedFlushCount;
+    }
+
+    /**
+     * Gets the total number of times the client has reconnected to this
+     * connection.
+     *
+     * @return the number of reconnects
+     */
+    public long getReconnectCount() {
+        return reconnectCount;
+    }
+
+    /**
+     * Gets the number of times the client has reconnected to this connection
+     * during the last minute. With long polling, the client reconnects after
+     * every message.
+     *
+     * @return the number of reconnects during the last minute
+     */
+    public int getReconnectsPerMinute() {
+        if (reconnectTimes == null) {
+            return 0;
+        }
+        purgeReconnectTimes(System.currentTimeMillis());
+        return reconnectTimes.size();
+    }
+
+    private void recordReconnect() {
+        long now = System.currentTimeMillis();
+        if (reconnectTimes == null) {
+            reconnectTimes = new ArrayDeque<>();
+        }
+        purgeReconnectTimes(now);
+        reconnectTimes.add(Long.valueOf(now));
+        reconnectCount++;
+    }
+
+    private void purgeReconnectTimes(long now) {
+        long limit = now - TimeUnit.MINUTES.toMillis(1);
+        while (!reconnectTimes.isEmpty()
+                && reconnectTimes.peekFirst().longValue() <= limit) {
+            reconnectTimes.pollFirst();
+        }
+    }
+
+    /**
+     * Checks whether there are changes held back because the outbox was full
+     * or because a long polling batch is pending.
+     *
+     * @return <code>true</code> if a push is pending, <code>false</code>
+     *         otherwise
+     */
+    protected boolean isFlushPending() {
+        return flushPending;
     }
 
     /**
@@ -235,22 +550,39 @@ public class AtmospherePushConnection implements PushConnection {
             return reader;
         }
 
-        if (incomingMessage == null) {
-            // No existing partially received message
-            incomingMessage = new FragmentedMessage(reader);
-        }
+        try {
+            if (incomingMessage == null) {
+                // No existing partially received message
+                incomingMessage = new FragmentedMessage(reader,
+                        getMaxMessageLength());
+            }
 
-        if (incomingMessage.append(reader)) {
-            // Message is complete
-            Reader completeReader = incomingMessage.getReader();
+            if (incomingMessage.append(reader)) {
+                // Message is complete
+                Reader completeReader = incomingMessage.getReader();
+                incomingMessage = null;
+                return completeReader;
+            } else {
+                // Only received a partial message
+                return null;
+            }
+        } catch (IOException e) {
+            // The rest of the message cannot be told apart from new messages,
+            // so let the client reconnect
             incomingMessage = null;
-            return completeReader;
-        } else {
-            // Only received a partial message
-            return null;
+            disconnect();
+            throw e;
         }
     }
 
+    private int getMaxMessageLength() {
+        VaadinSession session = getUI().getSession();
+        if (session == null) {
+            return Constants.DEFAULT_PUSH_MAX_MESSAGE_LENGTH;
+        }
+        return session.getConfiguration().getPushMaxMessageLength();
+    }
+
     @Override
     public boolean isConnected() {
         assert state != null;
@@ -277,6 +609,10 @@ public class AtmospherePushConnection implements PushConnection {
         }
 
         this.resource = resource;
+        if (connectedBefore) {
+            recordReconnect();
+        }
+        connectedBefore = true;
         State oldState = state;
         state = State.CONNECTED;
 
@@ -353,12 +689,14 @@ public class AtmospherePushConnection implements PushConnection {
      */
     public void connectionLost() {
         resource = null;
+        outbox = null;
         if (state == State.CONNECTED) {
             // Guard against connectionLost being (incorrectly) called when
             // state is PUSH_PENDING or RESPONSE_PENDING
             // (http://dev.vaadin.com/ticket/16919)
-            state = State.DISCONNECTED;
+            state = flushPending ? State.PUSH_PENDING : State.DISCONNECTED;
         }
+        flushPending = false;
 
     }
 
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.Serializable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Limits automatic pushes to at most one per UI within a configurable window.
+ * <p>
+ * If the changes of a UI were pushed less than a window ago, the changes are
+ * not pushed right away. Instead, a push is scheduled for when the window has
+ * passed. All changes made until then, e.g. by frequent
+ * {@link UI#access(com.vaadin.flow.server.Command)} calls from a background
+ * thread, are sent in a single response.
+ *
+ * @see com.vaadin.flow.function.DeploymentConfiguration#getPushCoalescingWindow()
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class PushCoalescer implements Serializable {
+
+    /**
+     * Coalescing state of a UI, stored as component data of the UI.
+     */
+    private static class PushState implements Serializable {
+        private boolean pushed;
+        private long lastPushTime;
+        private boolean deferredPushScheduled;
+    }
+
+    private final long windowNanos;
+
+    private final SerializableSupplier<Long> nanoClock;
+    private final SerializableFunction<VaadinService, ScheduledExecutorService> schedulerProvider;
+
+    private final LongAdder pushCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder deferredPushCount = new LongAdder();
+
+    /**
+     * Creates a new push coalescer.
+     *
+     * @param windowMillis
+     *            the minimum time in milliseconds between pushes to the same
+     *            UI, must be positive
+     */
+    public PushCoalescer(int windowMillis) {
+        this(windowMillis, System::nanoTime,
+                VaadinService::getPushFlushScheduler);
+    }
+
+    /**
+     * Creates a new push coalescer.
+     *
+     * @param windowMillis
+     *            the minimum time in milliseconds between pushes to the same
+     *            UI, must be positive
+     * @param nanoClock
+     *            the source of the current time in nanoseconds, not
+     *            <code>null</code>
+     * @param schedulerProvider
+     *            gets the scheduler of deferred pushes for a service, not
+     *            <code>null</code>
+     */
+    PushCoalescer(int windowMillis, SerializableSupplier<Long> nanoClock,
+            SerializableFunction<VaadinService, ScheduledExecutorService> schedulerProvider) {
+        assert nanoClock != null;
+        assert schedulerProvider != null;
+        windowNanos = TimeUnit.MILLISECONDS
+                .toNanos(checkWindow(windowMillis));
+        this.nanoClock = nanoClock;
+        this.schedulerProvider = schedulerProvider;
+    }
+
+    private static int checkWindow(int windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "The push coalescing window must be positive");
+        }
+        return windowMillis;
+    }
+
+    /**
+     * Pushes the changes of the given UI, unless changes were pushed less than
+     * a window ago. In that case, a push is scheduled for when the window has
+     * passed. The session of the UI must be locked.
+     *
+     * @param ui
+     *            the UI to push, not <code>null</code>
+     */
+    public void push(UI ui) {
+        VaadinSession session = ui.getSession();
+        session.checkHasLock();
+
+        session.getService().runPendingAccessTasks(session);
+        if (!ui.getInternals().isDirty()) {
+            return;
+        }
+
+        PushState state = getState(ui);
+        long now = nanoClock.get().longValue();
+        // System.nanoTime() may be zero or negative, so compare differences
+        long remaining = state.pushed
+                ? windowNanos - (now - state.lastPushTime)
+                : 0;
+        if (remaining > 0) {
+            coalescedCount.increment();
+            if (!state.deferredPushScheduled) {
+                scheduleDeferredPush(ui, state, remaining);
+            }
+            return;
+        }
+
+        state.pushed = true;
+        state.lastPushTime = now;
+        pushCount.increment();
+        ui.push();
+    }
+
+    private void scheduleDeferredPush(UI ui, PushState state,
+            long delayNanos) {
+        try {
+            schedulerProvider.apply(ui.getSession().getService()).schedule(
+                    () -> runDeferredPush(ui), delayNanos,
+                    TimeUnit.NANOSECONDS);
+            state.deferredPushScheduled = true;
+            deferredPushCount.increment();
+        } catch (RejectedExecutionException e) {
+            getLogger().debug("Push scheduler has been shut down", e);
+        }
+    }
+
+    private static void runDeferredPush(UI ui) {
+        VaadinSession session = ui.getSession();
+        if (session == null) {
+            return;
+        }
+        /*
+         * An access task ends with unlocking the session, which pushes the
+         * changes of all UIs using automatic push.
+         */
+        session.access(() -> getState(ui).deferredPushScheduled = false);
+    }
+
+    private static PushState getState(UI ui) {
+        PushState state = ComponentUtil.getData(ui, PushState.class);
+        if (state == null) {
+            state = new PushState();
+            ComponentUtil.setData(ui, PushState.class, state);
+        }
+        return state;
+    }
+
+    /**
+     * Checks whether a push of coalesced changes has been scheduled for the
+     * given UI.
+     *
+     * @param ui
+     *            the UI to check, not <code>null</code>
+     * @return <code>true</code> if a deferred push is scheduled,
+     *         <code>false</code> otherwise
+     */
+    boolean isDeferredPushScheduled(UI ui) {
+        PushState state = ComponentUtil.getData(ui, PushState.class);
+        return state != null && state.deferredPushScheduled;
+    }
+
+    /**
+     * Gets the number of pushes that have been sent.
+     *
+     * @return the number of pushes
+     */
+    public long getPushCount() {
+        return pushCount.sum();
+    }
+
+    /**
+     * Gets the number of times pushing changes has been postponed because
+     * changes were pushed less than a window ago.
+     *
+     * @return the number of coalesced pushes
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * Gets the number of pushes that have been scheduled to be sent when the
+     * window has passed.
+     *
+     * @return the number of deferred pushes
+     */
+    public long getDeferredPushCount() {
+        return deferredPushCount.sum();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(PushCoalescer.class.getName());
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.vaadin.flow.server.communication;
 
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Serializable;
@@ -24,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -34,7 +36,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
-import com.vaadin.flow.internal.MessageDigestUtil;
 import com.vaadin.flow.server.ErrorEvent;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
@@ -198,6 +199,32 @@ public class ServerRpcHandler implements Serializable {
 
     private static final int MAX_BUFFER_SIZE = 64 * 1024;
 
+    /**
+     * Initial capacity of the message builder when the length of the request
+     * body is not known.
+     */
+    private static final int DEFAULT_MESSAGE_CAPACITY = 1024;
+
+    /**
+     * Maximum size of the buffer used for reading request bodies.
+     */
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Passes the length of the request body to
+     * {@link ServerRpcHandler#getMessage(Reader)} without changing its
+     * signature.
+     */
+    private static class RequestBodyReader extends FilterReader
+            implements Serializable {
+        private final int contentLength;
+
+        private RequestBodyReader(Reader reader, int contentLength) {
+            super(reader);
+            this.contentLength = contentLength;
+        }
+    }
+
     /**
      * Exception thrown then the security key sent by the client does not match
      * the expected one.
@@ -236,7 +263,8 @@ public class ServerRpcHandler implements Serializable {
             throws IOException, InvalidUIDLSecurityKeyException {
         ui.getSession().setLastRequestTimestamp(System.currentTimeMillis());
 
-        String changeMessage = getMessage(reader);
+        String changeMessage = getMessage(
+                new RequestBodyReader(reader, request.getContentLength()));
 
         if (changeMessage == null || changeMessage.equals("")) {
             // The client sometimes sends empty messages, this is probably a bug
@@ -252,11 +280,7 @@ public class ServerRpcHandler implements Serializable {
             throw new InvalidUIDLSecurityKeyException();
         }
 
-        String hashMessage = changeMessage;
-        if (hashMessage.length() > 64 * 1024) {
-            hashMessage = changeMessage.substring(0, 64 * 1024);
-        }
-        byte[] messageHash = MessageDigestUtil.sha256(hashMessage);
+        byte[] messageHash = calculateMessageHash(changeMessage);
 
         int expectedId = ui.getInternals().getLastProcessedClientToServerId()
                 + 1;
@@ -351,19 +375,41 @@ public class ServerRpcHandler implements Serializable {
         RpcInvocationHandler mapSyncHandler = getInvocationHandlers()
                 .get(JsonConstants.RPC_TYPE_MAP_SYNC);
 
+        Map<Integer, List<JsonObject>> mapSyncsByNode = null;
+        if (mapSyncHandler instanceof MapSyncRpcHandler && ui.getSession()
+                .getConfiguration().useMapSyncBatching()) {
+            mapSyncsByNode = new LinkedHashMap<>();
+        }
+
         for (int i = 0; i < invocationsData.length(); i++) {
             JsonObject invocationJson = invocationsData.getObject(i);
             String type = invocationJson.getString(JsonConstants.RPC_TYPE);
             assert type != null;
             if (JsonConstants.RPC_TYPE_MAP_SYNC.equals(type)) {
                 // Handle these before any RPC invocations.
-                mapSyncHandler.handle(ui, invocationJson)
-                        .ifPresent(pendingChangeEvents::add);
+                if (mapSyncsByNode != null) {
+                    mapSyncsByNode
+                            .computeIfAbsent(
+                                    Integer.valueOf((int) invocationJson
+                                            .getNumber(JsonConstants.RPC_NODE)),
+                                    id -> new ArrayList<>())
+                            .add(invocationJson);
+                } else {
+                    mapSyncHandler.handle(ui, invocationJson)
+                            .ifPresent(pendingChangeEvents::add);
+                }
             } else {
                 data.add(invocationJson);
             }
         }
 
+        if (mapSyncsByNode != null) {
+            mapSyncsByNode.forEach((nodeId,
+                    syncs) -> ((MapSyncRpcHandler) mapSyncHandler)
+                            .handleBatch(ui, nodeId.intValue(), syncs)
+                            .ifPresent(pendingChangeEvents::add));
+        }
+
         pendingChangeEvents.forEach(Runnable::run);
         data.forEach(json -> handleInvocationData(ui, json));
     }
@@ -386,9 +432,37 @@ public class ServerRpcHandler implements Serializable {
     }
 
     protected String getMessage(Reader reader) throws IOException {
+        int contentLength = reader instanceof RequestBodyReader
+                ? ((RequestBodyReader) reader).contentLength
+                : -1;
+        return getMessage(reader, contentLength);
+    }
+
+    /**
+     * Reads the whole message from the given reader.
+     * <p>
+     * The read buffer and the builder that the message is collected into are
+     * sized by the given content length, so that a small message does not
+     * cause large temporary allocations.
+     *
+     * @param reader
+     *            the reader to read the message from
+     * @param contentLength
+     *            the length of the request body in bytes, or a negative value
+     *            if not known
+     * @return the message
+     * @throws IOException
+     *             if reading the message fails
+     */
+    protected String getMessage(Reader reader, int contentLength)
+            throws IOException {
+        // A UTF-8 encoded body never decodes to more chars than it has bytes
+        int capacity = contentLength > 0
+                ? Math.min(contentLength, MAX_BUFFER_SIZE)
+                : DEFAULT_MESSAGE_CAPACITY;
 
-        StringBuilder sb = new StringBuilder(MAX_BUFFER_SIZE);
-        char[] buffer = new char[MAX_BUFFER_SIZE];
+        StringBuilder sb = new StringBuilder(capacity);
+        char[] buffer = new char[Math.min(capacity, READ_BUFFER_SIZE)];
 
         while (true) {
             int read = reader.read(buffer);
@@ -401,6 +475,34 @@ public class ServerRpcHandler implements Serializable {
         return sb.toString();
     }
 
+    /**
+     * Calculates a hash of the given message for recognizing a message that
+     * the client sends again. The hash only needs to tell apart consecutive
+     * messages from the same client, so a fast non-cryptographic 64-bit hash
+     * of at most the first 64K characters is used.
+     *
+     * @param message
+     *            the message to hash, not <code>null</code>
+     * @return the hash as an 8 byte array
+     */
+    static byte[] calculateMessageHash(String message) {
+        int length = Math.min(message.length(), MAX_BUFFER_SIZE);
+
+        // FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++) {
+            hash ^= message.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= length;
+
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (hash >>> (8 * i));
+        }
+        return bytes;
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(ServerRpcHandler.class.getName());
     }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletResponse;
+
+import com.vaadin.flow.internal.SharedConstantPool;
+import com.vaadin.flow.internal.SharedConstantPool.Snapshot;
+import com.vaadin.flow.server.RequestHandler;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Serves the snapshot of the application wide {@link SharedConstantPool} as a
+ * JavaScript resource. The URL of the resource contains the hash of the
+ * snapshot, so the resource can be cached by the browser indefinitely.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class SharedConstantsRequestHandler implements RequestHandler {
+
+    /**
+     * Path prefix of shared constant resources.
+     */
+    static final String SHARED_CONSTANTS_PREFIX = "VAADIN/constants/";
+
+    private static final String SUFFIX = ".js";
+
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null
+                || !pathInfo.startsWith("/" + SHARED_CONSTANTS_PREFIX)) {
+            return false;
+        }
+
+        Snapshot snapshot = session.getService().getSharedConstantPool()
+                .getSnapshot();
+        if (snapshot == null
+                || !pathInfo.equals("/" + getResourcePath(snapshot))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND,
+                    "Shared constants are not found for path=" + pathInfo);
+            return true;
+        }
+
+        byte[] script = snapshot.getScript();
+        response.setContentType("application/javascript; charset=UTF-8");
+        response.setCacheTime(TimeUnit.DAYS.toMillis(365));
+        response.setContentLength(script.length);
+        try (OutputStream out = response.getOutputStream()) {
+            out.write(script);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the path of the resource of the given snapshot, relative to the
+     * servlet.
+     *
+     * @param snapshot
+     *            the shared constant snapshot, not <code>null</code>
+     * @return the relative path of the snapshot resource
+     */
+    public static String getResourcePath(Snapshot snapshot) {
+        return SHARED_CONSTANTS_PREFIX + snapshot.getHash() + SUFFIX;
+    }
+}
@@ -18,10 +18,12 @@ package com.vaadin.flow.server.communication;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.StringWriter;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,7 +41,6 @@ import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurity
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonException;
-import elemental.json.JsonObject;
 
 /**
  * Processes a UIDL request from the client.
@@ -83,12 +84,10 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         }
 
-        StringWriter stringWriter = new StringWriter();
-
         try {
             getRpcHandler(session).handleRpc(uI, request.getReader(), request);
 
-            writeUidl(uI, stringWriter);
+            writeUidl(uI, request, response);
         } catch (JsonException e) {
             getLogger().error("Error writing JSON to response", e);
             // Refresh on client side
@@ -101,11 +100,8 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             // Refresh on client side
             writeRefresh(response);
             return true;
-        } finally {
-            stringWriter.close();
         }
 
-        commitJsonResponse(response, stringWriter.toString());
         return true;
     }
 
@@ -115,12 +111,174 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         commitJsonResponse(response, json);
     }
 
-    private static void writeUidl(UI ui, Writer writer) throws IOException {
-        JsonObject uidl = new UidlWriter().createUidl(ui, false);
+    /**
+     * Writes the UIDL response to the response stream without first building
+     * the complete message as a JSON tree. Nothing is written to the response
+     * until all application code has been run, so a failure in application
+     * code still allows writing another response.
+     * <p>
+     * Responses larger than the configured compression threshold are gzip
+     * compressed if the browser accepts it. When compression is enabled,
+     * responses vary by the <code>Accept-Encoding</code> request header.
+     */
+    private static void writeUidl(UI ui, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+
+        // Ensure that the browser does not cache UIDL responses.
+        // iOS 6 Safari requires this (#9732)
+        response.setHeader("Cache-Control", "no-cache");
+
+        int compressionThreshold = ui.getSession().getConfiguration()
+                .getUidlCompressionThreshold();
+        OutputStream outputStream;
+        if (compressionThreshold > 0) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+        if (compressionThreshold > 0
+                && acceptsGzip(request.getHeader("Accept-Encoding"))) {
+            outputStream = new CompressingOutputStream(response,
+                    compressionThreshold);
+        } else {
+            outputStream = response.getOutputStream();
+        }
+
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(outputStream, UTF_8));
 
         // some dirt to prevent cross site scripting
-        String responseString = "for(;;);[" + uidl.toJson() + "]";
-        writer.write(responseString);
+        writer.write("for(;;);[");
+        new UidlWriter().writeUidl(ui, false, writer);
+        writer.write(']');
+
+        // NOTE GateIn requires the buffers to be flushed to work
+        writer.flush();
+        if (outputStream instanceof CompressingOutputStream) {
+            ((CompressingOutputStream) outputStream).finish();
+        }
+    }
+
+    /**
+     * Checks whether an <code>Accept-Encoding</code> header value accepts gzip
+     * encoding. Codings with a quality value of zero are not acceptable.
+     *
+     * @param acceptEncoding
+     *            the header value, or <code>null</code> if there is no header
+     * @return <code>true</code> if gzip is acceptable, <code>false</code>
+     *         otherwise
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        // An explicit gzip entry takes precedence over the wildcard
+        double gzipQuality = -1;
+        double wildcardQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if ("gzip".equalsIgnoreCase(name)) {
+                gzipQuality = getQuality(parts);
+            } else if ("*".equals(name)) {
+                wildcardQuality = getQuality(parts);
+            }
+        }
+        if (gzipQuality >= 0) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality > 0;
+    }
+
+    private static double getQuality(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String parameter = codingParts[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // Treat an invalid quality as not acceptable
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Output stream that buffers data up to a threshold and switches to gzip
+     * compression if the threshold is exceeded. Short responses are written
+     * uncompressed with a content length when the stream is finished.
+     */
+    static class CompressingOutputStream extends OutputStream {
+        private final VaadinResponse response;
+        private byte[] buffer;
+        private int count;
+        private OutputStream out;
+
+        /**
+         * Creates a new stream writing to the given response.
+         *
+         * @param response
+         *            the response to write to, not <code>null</code>
+         * @param threshold
+         *            the number of bytes above which the data is compressed
+         */
+        CompressingOutputStream(VaadinResponse response, int threshold) {
+            this.response = response;
+            buffer = new byte[threshold];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (out == null) {
+                if (count < buffer.length) {
+                    buffer[count++] = (byte) b;
+                    return;
+                }
+                startCompressing();
+            }
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out == null) {
+                if (count + len <= buffer.length) {
+                    System.arraycopy(b, off, buffer, count, len);
+                    count += len;
+                    return;
+                }
+                startCompressing();
+            }
+            out.write(b, off, len);
+        }
+
+        private void startCompressing() throws IOException {
+            // Must be set before anything is written to the response
+            response.setHeader("Content-Encoding", "gzip");
+            out = new GZIPOutputStream(response.getOutputStream());
+            out.write(buffer, 0, count);
+            buffer = null;
+        }
+
+        /**
+         * Writes all remaining data to the response without closing the
+         * response stream.
+         *
+         * @throws IOException
+         *             if writing to the response fails
+         */
+        void finish() throws IOException {
+            if (out == null) {
+                response.setContentLength(count);
+                out = response.getOutputStream();
+                out.write(buffer, 0, count);
+                buffer = null;
+            } else if (out instanceof GZIPOutputStream) {
+                ((GZIPOutputStream) out).finish();
+            }
+            out.flush();
+        }
     }
 
     private static final Logger getLogger() {
@@ -19,17 +19,20 @@ package com.vaadin.flow.server.communication;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.IOUtils;
@@ -42,6 +45,7 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.DependencyList;
 import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.component.internal.UIInternals.JavaScriptInvocation;
+import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.StateTree;
@@ -64,6 +68,7 @@ import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes pending server-side changes to UI state to JSON. This includes
@@ -143,6 +148,97 @@ public class UidlWriter implements Serializable {
     public JsonObject createUidl(UI ui, boolean async) {
         JsonObject response = Json.createObject();
 
+        populateHead(ui, async, response);
+
+        JsonArray stateChanges = Json.createArray();
+        ChangeEncoder encoder = new ChangeEncoder(ui);
+        collectChanges(ui).forEach(change -> stateChanges
+                .set(stateChanges.length(), encoder.encode(change)));
+
+        populateBeforeChanges(ui, response);
+        populateAfterChanges(ui, response);
+        if (stateChanges.length() != 0) {
+            response.put("changes", stateChanges);
+        }
+
+        return response;
+    }
+
+    /**
+     * Writes all pending changes to the given UI as a JSON object to a writer.
+     * The result is the same as the JSON of
+     * {@link #createUidl(UI, boolean)}, but each change is written to the
+     * writer as soon as it has been encoded instead of first building the
+     * complete message.
+     * <p>
+     * Nothing is written until all application code, such as
+     * <code>beforeClientResponse</code> callbacks and dependency filters, has
+     * been run. An exception thrown by application code thus leaves the writer
+     * untouched, so that another response can still be written.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message.
+     * @param writer
+     *            the writer to write the UIDL response to, not
+     *            <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    public void writeUidl(UI ui, boolean async, Writer writer)
+            throws IOException {
+        JsonObject head = Json.createObject();
+        populateHead(ui, async, head);
+        // The changes themselves are encoded only while writing
+        List<NodeChange> changes = collectChanges(ui);
+        populateBeforeChanges(ui, head);
+
+        writer.write('{');
+        boolean empty = writeMembers(head, writer, true);
+        if (!changes.isEmpty()) {
+            if (!empty) {
+                writer.write(',');
+            }
+            writer.write("\"changes\":[");
+            ChangeEncoder encoder = new ChangeEncoder(ui);
+            for (int i = 0; i < changes.size(); i++) {
+                if (i != 0) {
+                    writer.write(',');
+                }
+                writer.write(encoder.encode(changes.get(i)).toJson());
+            }
+            writer.write(']');
+            empty = false;
+        }
+
+        // Constants are known only after the changes have been encoded
+        JsonObject tail = Json.createObject();
+        populateAfterChanges(ui, tail);
+        writeMembers(tail, writer, empty);
+        writer.write('}');
+    }
+
+    private static boolean writeMembers(JsonObject json, Writer writer,
+            boolean empty) throws IOException {
+        for (String key : json.keys()) {
+            if (!empty) {
+                writer.write(',');
+            }
+            writer.write(JsonUtil.quote(key));
+            writer.write(':');
+            writer.write(json.get(key).toJson());
+            empty = false;
+        }
+        return empty;
+    }
+
+    /**
+     * Populates the parts of the response that are written before the
+     * changes.
+     */
+    private void populateHead(UI ui, boolean async, JsonObject response) {
         UIInternals uiInternals = ui.getInternals();
 
         VaadinSession session = ui.getSession();
@@ -173,34 +269,52 @@ public class UidlWriter implements Serializable {
         if (meta.keys().length > 0) {
             response.put("meta", meta);
         }
+    }
 
-        JsonArray stateChanges = Json.createArray();
+    /**
+     * Populates the parts of the response that depend on the changes having
+     * been collected, but not on them having been encoded.
+     */
+    private void populateBeforeChanges(UI ui, JsonObject response) {
+        UIInternals uiInternals = ui.getInternals();
 
-        encodeChanges(ui, stateChanges);
+        VaadinSession session = ui.getSession();
+        VaadinService service = session.getService();
 
         populateDependencies(response, uiInternals.getDependencyList(),
                 new ResolveContext(service, session.getBrowser(), null));
 
-        if (uiInternals.getConstantPool().hasNewConstants()) {
-            response.put("constants",
-                    uiInternals.getConstantPool().dumpConstants());
-        }
-        if (stateChanges.length() != 0) {
-            response.put("changes", stateChanges);
-        }
-
         List<JavaScriptInvocation> executeJavaScriptList = uiInternals
                 .dumpPendingJavaScriptInvocations();
         if (!executeJavaScriptList.isEmpty()) {
             response.put(JsonConstants.UIDL_KEY_EXECUTE,
                     encodeExecuteJavaScriptList(executeJavaScriptList));
         }
-        if (ui.getSession().getService().getDeploymentConfiguration()
-                .isRequestTiming()) {
+    }
+
+    /**
+     * Populates the parts of the response that depend on the changes having
+     * been encoded.
+     */
+    private void populateAfterChanges(UI ui, JsonObject response) {
+        UIInternals uiInternals = ui.getInternals();
+        VaadinService service = ui.getSession().getService();
+
+        ConstantPool constantPool = uiInternals.getConstantPool();
+        constantPool.evictConstants(() -> collectReferencedConstantIds(
+                uiInternals.getStateTree()));
+        if (constantPool.hasEvictedConstants()) {
+            response.put(JsonConstants.UIDL_KEY_EVICTED_CONSTANTS,
+                    constantPool.dumpEvictedConstants());
+        }
+        if (constantPool.hasNewConstants()) {
+            response.put("constants", constantPool.dumpConstants());
+        }
+
+        if (service.getDeploymentConfiguration().isRequestTiming()) {
             response.put("timings", createPerformanceData(ui));
         }
         uiInternals.incrementServerId();
-        return response;
     }
 
     private static void populateDependencies(JsonObject response,
@@ -324,15 +438,22 @@ public class UidlWriter implements Serializable {
      * @param ui
      *            the UI
      * @param stateChanges
-     *            a JSON array to put state changes into
+     *            a consumer for the encoded state changes
      * @see StateTree#runExecutionsBeforeClientResponse()
+     * @see com.vaadin.flow.function.DeploymentConfiguration#useCompactChangeEncoding()
      */
-    private void encodeChanges(UI ui, JsonArray stateChanges) {
+    /**
+     * Runs the <code>beforeClientResponse</code> callbacks and collects the
+     * changes of the state tree of the given UI. The changes are not encoded,
+     * which allows encoding and writing them one at a time.
+     */
+    private List<NodeChange> collectChanges(UI ui) {
         UIInternals uiInternals = ui.getInternals();
         StateTree stateTree = uiInternals.getStateTree();
 
         stateTree.runExecutionsBeforeClientResponse();
 
+        List<NodeChange> changes = new ArrayList<>();
         Set<Class<? extends Component>> componentsWithDependencies = new LinkedHashSet<>();
         stateTree.collectChanges(change -> {
             if (attachesComponent(change)) {
@@ -340,14 +461,50 @@ public class UidlWriter implements Serializable {
                         .ifPresent(component -> addComponentHierarchy(ui,
                                 componentsWithDependencies, component));
             }
-
-            // Encode the actual change
-            stateChanges.set(stateChanges.length(),
-                    change.toJson(uiInternals.getConstantPool()));
+            changes.add(change);
         });
 
         componentsWithDependencies
                 .forEach(uiInternals::addComponentDependencies);
+        return changes;
+    }
+
+    /**
+     * Encodes changes using the constant pool of a UI.
+     */
+    private static class ChangeEncoder implements Serializable {
+        private final ConstantPool constantPool;
+        private final boolean compact;
+
+        private ChangeEncoder(UI ui) {
+            constantPool = ui.getInternals().getConstantPool();
+            compact = ui.getSession().getService().getDeploymentConfiguration()
+                    .useCompactChangeEncoding();
+        }
+
+        private JsonValue encode(NodeChange change) {
+            if (compact) {
+                return change.toCompactJson(constantPool);
+            }
+            return change.toJson(constantPool);
+        }
+    }
+
+    /**
+     * Collects the ids of all constants referenced by the nodes in the given
+     * state tree.
+     *
+     * @param stateTree
+     *            the state tree to collect from
+     * @return a set of referenced constant ids
+     */
+    private static Set<String> collectReferencedConstantIds(
+            StateTree stateTree) {
+        Set<String> ids = new HashSet<>();
+        Consumer<String> collector = ids::add;
+        stateTree.getRootNode()
+                .visitNodeTree(node -> node.forEachConstantId(collector));
+        return ids;
     }
 
     private static boolean attachesComponent(NodeChange change) {
@@ -39,16 +39,29 @@ public abstract class AbstractRpcInvocationHandler
     @Override
     public Optional<Runnable> handle(UI ui, JsonObject invocationJson) {
         assert invocationJson.hasKey(JsonConstants.RPC_NODE);
-        StateNode node = ui.getInternals().getStateTree()
-                .getNodeById(getNodeId(invocationJson));
+        return findTargetNode(ui, getNodeId(invocationJson))
+                .flatMap(node -> handleNode(node, invocationJson));
+    }
+
+    /**
+     * Finds the node that is the target of an RPC invocation. Invocations for
+     * nodes that do not exist, are detached or are inactive are ignored.
+     *
+     * @param ui
+     *            the UI receiving the invocation, not {@code null}
+     * @param nodeId
+     *            the id of the target node
+     * @return the node to handle the invocation with, or an empty optional if
+     *         the invocation should be ignored
+     */
+    protected Optional<StateNode> findTargetNode(UI ui, int nodeId) {
+        StateNode node = ui.getInternals().getStateTree().getNodeById(nodeId);
         if (node == null) {
-            getLogger().warn("Got an RPC for non-existent node: {}",
-                    getNodeId(invocationJson));
+            getLogger().warn("Got an RPC for non-existent node: {}", nodeId);
             return Optional.empty();
         }
         if (!node.isAttached()) {
-            getLogger().warn("Got an RPC for detached node: {}",
-                    getNodeId(invocationJson));
+            getLogger().warn("Got an RPC for detached node: {}", nodeId);
             return Optional.empty();
         }
 
@@ -60,9 +73,8 @@ public abstract class AbstractRpcInvocationHandler
                             + "the client side for inactive node id='{}'",
                     getClass().getName(), node.getId());
             return Optional.empty();
-        } else {
-            return handleNode(node, invocationJson);
         }
+        return Optional.of(node);
     }
 
     /**
@@ -16,10 +16,15 @@
 package com.vaadin.flow.server.communication.rpc;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.LoggerFactory;
 
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.DisabledUpdateMode;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.StateNode;
@@ -95,6 +100,50 @@ public class MapSyncRpcHandler extends AbstractRpcInvocationHandler {
         return Optional.empty();
     }
 
+    /**
+     * Handles all property synchronizations that a message contains for a
+     * single node. The target node is looked up only once and only the last
+     * received value of each property is applied, so that a property change
+     * event is fired at most once per property.
+     *
+     * @param ui
+     *            the UI receiving the invocations, not {@code null}
+     * @param nodeId
+     *            the id of the node that all invocations target
+     * @param invocations
+     *            the property synchronization invocations in the order they
+     *            were received, not {@code null}
+     * @return an optional runnable for firing the deferred change events of
+     *         the node
+     */
+    public Optional<Runnable> handleBatch(UI ui, int nodeId,
+            List<JsonObject> invocations) {
+        Optional<StateNode> node = findTargetNode(ui, nodeId);
+        if (!node.isPresent()) {
+            return Optional.empty();
+        }
+
+        Map<String, JsonObject> lastSyncs = new LinkedHashMap<>();
+        for (JsonObject invocationJson : invocations) {
+            assert nodeId == (int) invocationJson
+                    .getNumber(JsonConstants.RPC_NODE);
+            lastSyncs.put(
+                    invocationJson.getString(JsonConstants.RPC_PROPERTY),
+                    invocationJson);
+        }
+
+        List<Runnable> changeEvents = new ArrayList<>(lastSyncs.size());
+        for (JsonObject invocationJson : lastSyncs.values()) {
+            handleNode(node.get(), invocationJson)
+                    .ifPresent(changeEvents::add);
+        }
+
+        if (changeEvents.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(() -> changeEvents.forEach(Runnable::run));
+    }
+
     private Optional<Runnable> enqueuePropertyUpdate(StateNode node,
             JsonObject invocationJson, Class<? extends NodeFeature> feature,
             String property) {
@@ -21,7 +21,10 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -35,6 +38,7 @@ import com.vaadin.flow.component.polymertemplate.EventHandler;
 import com.vaadin.flow.component.polymertemplate.PolymerTemplate;
 import com.vaadin.flow.dom.DisabledUpdateMode;
 import com.vaadin.flow.internal.ReflectTools;
+import com.vaadin.flow.internal.ReflectionCache;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.nodefeature.ClientCallableHandlers;
 import com.vaadin.flow.internal.nodefeature.ComponentMapping;
@@ -63,6 +67,14 @@ public class PublishedServerEventHandlerRpcHandler
 
     private static final Collection<RpcDecoder> DECODERS = loadDecoders();
 
+    /**
+     * Event handler methods of component classes by method name. A
+     * <code>null</code> value means that the first class declaring a method
+     * with the name declares several such methods.
+     */
+    private static final ReflectionCache<Component, Map<String, Method>> HANDLER_METHODS = new ReflectionCache<>(
+            PublishedServerEventHandlerRpcHandler::collectHandlerMethods);
+
     @Override
     public String getRpcType() {
         return JsonConstants.RPC_PUBLISHED_SERVER_EVENT_HANDLER;
@@ -141,29 +153,56 @@ public class PublishedServerEventHandlerRpcHandler
 
     private static Optional<Method> findMethod(Component instance,
             Class<?> clazz, String methodName) {
-        List<Method> methods = Stream.of(clazz.getDeclaredMethods())
-                .filter(method -> methodName.equals(method.getName()))
-                .filter(method -> method.isAnnotationPresent(EventHandler.class)
-                        || method.isAnnotationPresent(ClientCallable.class))
-                .collect(Collectors.toList());
-        if (methods.size() > 1) {
+        Map<String, Method> methods = HANDLER_METHODS
+                .get(clazz.asSubclass(Component.class));
+        if (!methods.containsKey(methodName)) {
+            return Optional.empty();
+        }
+        Method method = methods.get(methodName);
+        if (method == null) {
             String msg = String.format("Class '%s' contains "
                     + "several event handler method with the same name '%s'",
                     instance.getClass().getName(), methodName);
             throw new IllegalStateException(msg);
-        } else if (methods.size() == 1) {
-            return Optional.of(methods.get(0));
-        } else if (!Component.class.equals(clazz)) {
-            return findMethod(instance, clazz.getSuperclass(), methodName);
-        } else {
-            return Optional.empty();
         }
+        return Optional.of(method);
+    }
+
+    private static Map<String, Method> collectHandlerMethods(
+            Class<? extends Component> type) {
+        Map<String, Method> methods = new HashMap<>();
+        Class<?> clazz = type;
+        while (clazz != null) {
+            Map<String, List<Method>> declared = Stream
+                    .of(clazz.getDeclaredMethods())
+                    .filter(method -> method
+                            .isAnnotationPresent(EventHandler.class)
+                            || method.isAnnotationPresent(ClientCallable.class))
+                    .collect(Collectors.groupingBy(Method::getName));
+            declared.forEach((name, candidates) -> {
+                if (methods.containsKey(name)) {
+                    // Overridden in a subclass
+                    return;
+                }
+                if (candidates.size() > 1) {
+                    methods.put(name, null);
+                } else {
+                    Method method = candidates.get(0);
+                    method.setAccessible(true);
+                    methods.put(name, method);
+                }
+            });
+            if (Component.class.equals(clazz)) {
+                break;
+            }
+            clazz = clazz.getSuperclass();
+        }
+        return Collections.unmodifiableMap(methods);
     }
 
     private static void invokeMethod(Component instance, Method method,
             JsonArray args) {
         try {
-            method.setAccessible(true);
             method.invoke(instance, decodeArgs(instance, method, args));
         } catch (IllegalAccessException e) {
             throw new RuntimeException(e);
@@ -283,9 +322,12 @@ public class PublishedServerEventHandlerRpcHandler
 
     private static Optional<RpcDecoder> getDecoder(JsonValue value,
             Class<?> type) {
-        return DECODERS.stream()
-                .filter(decoder -> decoder.isApplicable(value, type))
-                .findFirst();
+        for (RpcDecoder decoder : DECODERS) {
+            if (decoder.isApplicable(value, type)) {
+                return Optional.of(decoder);
+            }
+        }
+        return Optional.empty();
     }
 
     private static boolean isTemplateModelValue(Component instance,
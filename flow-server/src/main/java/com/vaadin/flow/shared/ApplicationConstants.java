@@ -129,6 +129,18 @@ public class ApplicationConstants implements Serializable {
      */
     public static final String UI_ID_PARAMETER = "v-uiId";
 
+    /**
+     * Configuration parameter holding the hash of the shared constant table
+     * that the bootstrap page has loaded.
+     */
+    public static final String SHARED_CONSTANTS = "sharedConstants";
+
+    /**
+     * Configuration parameter telling the client engine that state tree
+     * changes are sent in the compact encoding.
+     */
+    public static final String COMPACT_CHANGES = "compactChanges";
+
     /**
      * Path to the Vaadin client engine folder, relative to the context root.
      */
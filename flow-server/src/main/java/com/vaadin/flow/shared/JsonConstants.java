@@ -124,6 +124,57 @@ public class JsonConstants implements Serializable {
      */
     public static final String CHANGE_PUT_NODE_VALUE = "nodeValue";
 
+    /**
+     * Type code of a compact attach change: <code>[code, node]</code>.
+     */
+    public static final int CHANGE_CODE_ATTACH = 0;
+
+    /**
+     * Type code of a compact detach change: <code>[code, node]</code>.
+     */
+    public static final int CHANGE_CODE_DETACH = 1;
+
+    /**
+     * Type code of a compact empty change:
+     * <code>[code, node, feat, featType]</code>.
+     */
+    public static final int CHANGE_CODE_NOOP = 2;
+
+    /**
+     * Type code of a compact put change with a value:
+     * <code>[code, node, feat, key, value]</code>.
+     */
+    public static final int CHANGE_CODE_PUT = 3;
+
+    /**
+     * Type code of a compact put change with a node value:
+     * <code>[code, node, feat, key, nodeValue]</code>.
+     */
+    public static final int CHANGE_CODE_PUT_NODE = 4;
+
+    /**
+     * Type code of a compact remove change:
+     * <code>[code, node, feat, key]</code>.
+     */
+    public static final int CHANGE_CODE_REMOVE = 5;
+
+    /**
+     * Type code of a compact splice change with values:
+     * <code>[code, node, feat, index, remove, add?]</code>.
+     */
+    public static final int CHANGE_CODE_SPLICE = 6;
+
+    /**
+     * Type code of a compact splice change with node values:
+     * <code>[code, node, feat, index, remove, addNodes?]</code>.
+     */
+    public static final int CHANGE_CODE_SPLICE_NODES = 7;
+
+    /**
+     * Type code of a compact clear change: <code>[code, node, feat]</code>.
+     */
+    public static final int CHANGE_CODE_CLEAR = 8;
+
     /**
      * Key holding the type in of messages sent from the client.
      */
@@ -165,6 +216,12 @@ public class JsonConstants implements Serializable {
      */
     public static final String UIDL_KEY_EXECUTE = "execute";
 
+    /**
+     * Key holding the ids of constants that the client should remove from its
+     * constant pool.
+     */
+    public static final String UIDL_KEY_EVICTED_CONSTANTS = "evictedConstants";
+
     /**
      * Key used to hold the feature id when synchronizing node values.
      */
@@ -15,6 +15,11 @@
  */
 package com.vaadin.flow.internal;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -22,6 +27,7 @@ import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.ConstantPoolKey;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 public class ConstantPoolTest {
@@ -74,4 +80,217 @@ public class ConstantPoolTest {
         Assert.assertNotEquals(constantId, otherId);
         Assert.assertTrue(constantPool.hasNewConstants());
     }
+
+    @Test
+    public void sameStructure_sameHash() {
+        Assert.assertEquals(ConstantPoolKey.calculateHash(createValue("foo")),
+                ConstantPoolKey.calculateHash(createValue("foo")));
+    }
+
+    @Test
+    public void similarStructures_differentHashes() {
+        String[] hashes = { ConstantPoolKey.calculateHash(createValue("foo")),
+                ConstantPoolKey.calculateHash(createValue("fo")),
+                ConstantPoolKey.calculateHash(createValue("")),
+                ConstantPoolKey.calculateHash(Json.create("foo")),
+                ConstantPoolKey.calculateHash(Json.create(1)),
+                ConstantPoolKey.calculateHash(Json.create("1")),
+                ConstantPoolKey.calculateHash(Json.create(true)),
+                ConstantPoolKey.calculateHash(Json.createNull()),
+                ConstantPoolKey.calculateHash(Json.createArray()),
+                ConstantPoolKey.calculateHash(Json.createObject()) };
+
+        Assert.assertEquals(hashes.length,
+                new HashSet<>(Arrays.asList(hashes))
+                        .size());
+    }
+
+    @Test
+    public void hashIsShortAscii() {
+        String hash = ConstantPoolKey.calculateHash(createValue("foo"));
+        Assert.assertEquals(12, hash.length());
+        Assert.assertTrue(hash.chars().allMatch(c -> c < 128));
+    }
+
+    @Test
+    public void unboundedPool_nothingEvicted() {
+        for (int i = 0; i < 100; i++) {
+            constantPool.getConstantId(
+                    new ConstantPoolKey(createValue(String.valueOf(i))));
+        }
+        constantPool.dumpConstants();
+
+        constantPool.evictConstants(() -> {
+            throw new AssertionError("Should not collect references");
+        });
+
+        Assert.assertFalse(constantPool.hasEvictedConstants());
+    }
+
+    @Test
+    public void boundedPool_leastRecentlyUsedUnreferencedEvicted() {
+        constantPool.setMaxSize(4);
+
+        String[] ids = new String[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = constantPool.getConstantId(
+                    new ConstantPoolKey(createValue(String.valueOf(i))));
+        }
+        constantPool.dumpConstants();
+
+        // Use the first constant again and keep the second one referenced
+        constantPool.getConstantId(new ConstantPoolKey(createValue("0")));
+        constantPool.evictConstants(
+                () -> new HashSet<>(Collections.singleton(ids[1])));
+
+        Assert.assertTrue(constantPool.hasEvictedConstants());
+        JsonArray evicted = constantPool.dumpEvictedConstants();
+        Assert.assertEquals(2, evicted.length());
+        Assert.assertEquals(ids[2], evicted.getString(0));
+        Assert.assertEquals(ids[3], evicted.getString(1));
+        Assert.assertFalse(constantPool.hasEvictedConstants());
+
+        // Evicted constant is sent again when used
+        constantPool.getConstantId(new ConstantPoolKey(createValue("2")));
+        Assert.assertTrue(constantPool.hasNewConstants());
+        Assert.assertTrue(constantPool.dumpConstants().hasKey(ids[2]));
+    }
+
+    @Test
+    public void boundedPool_sameKeyUsedAfterEviction_sentAgain() {
+        constantPool.setMaxSize(1);
+
+        // Key of a component that is detached and later attached again
+        ConstantPoolKey detachedKey = new ConstantPoolKey(createValue("0"));
+        String id = constantPool.getConstantId(detachedKey);
+        JsonObject firstDump = constantPool.dumpConstants();
+
+        for (int i = 1; i < 3; i++) {
+            constantPool.getConstantId(
+                    new ConstantPoolKey(createValue(String.valueOf(i))));
+        }
+        constantPool.dumpConstants();
+        // Not referenced while detached
+        constantPool.evictConstants(HashSet::new);
+        Assert.assertTrue(constantPool.dumpEvictedConstants().toJson()
+                .contains(id));
+
+        // Attached again
+        Assert.assertEquals(id, constantPool.getConstantId(detachedKey));
+        Assert.assertTrue(constantPool.hasNewConstants());
+        JsonObject secondDump = constantPool.dumpConstants();
+        Assert.assertTrue(secondDump.hasKey(id));
+        Assert.assertEquals(firstDump.get(id).toJson(),
+                secondDump.get(id).toJson());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void unboundedPool_valueReleasedAfterExport() {
+        ConstantPoolKey key = new ConstantPoolKey(createValue("0"));
+        constantPool.getConstantId(key);
+        constantPool.dumpConstants();
+
+        key.export(Json.createObject());
+    }
+
+    @Test
+    public void boundedPool_newConstantsNotEvicted() {
+        constantPool.setMaxSize(1);
+
+        String id1 = constantPool
+                .getConstantId(new ConstantPoolKey(createValue("1")));
+        String id2 = constantPool
+                .getConstantId(new ConstantPoolKey(createValue("2")));
+
+        constantPool.evictConstants(HashSet::new);
+
+        Assert.assertFalse(constantPool.hasEvictedConstants());
+        JsonObject constants = constantPool.dumpConstants();
+        Assert.assertTrue(constants.hasKey(id1));
+        Assert.assertTrue(constants.hasKey(id2));
+    }
+
+    @Test
+    public void boundedPool_allReferenced_referencesNotCollectedUntilGrown() {
+        constantPool.setMaxSize(4);
+
+        Set<String> referenced = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            referenced.add(constantPool.getConstantId(
+                    new ConstantPoolKey(createValue(String.valueOf(i)))));
+        }
+        constantPool.dumpConstants();
+
+        constantPool.evictConstants(() -> new HashSet<>(referenced));
+        Assert.assertFalse(constantPool.hasEvictedConstants());
+
+        constantPool.getConstantId(new ConstantPoolKey(createValue("5")));
+        constantPool.dumpConstants();
+        constantPool.evictConstants(() -> {
+            throw new AssertionError("Should not collect references");
+        });
+    }
+
+    @Test
+    public void sharedConstant_notSentToClient() {
+        String sharedId = ConstantPoolKey.calculateHash(createValue("shared"));
+        constantPool.setSharedConstants(Collections.singleton(sharedId));
+
+        String id = constantPool
+                .getConstantId(new ConstantPoolKey(createValue("shared")));
+
+        Assert.assertEquals(sharedId, id);
+        Assert.assertFalse(constantPool.hasNewConstants());
+    }
+
+    @Test
+    public void sharedConstantPool_dumpedConstantsRecorded() {
+        SharedConstantPool sharedConstantPool = new SharedConstantPool();
+        constantPool.setSharedConstantPool(sharedConstantPool);
+
+        ConstantPool otherPool = new ConstantPool();
+        otherPool.setSharedConstantPool(sharedConstantPool);
+
+        String id = constantPool
+                .getConstantId(new ConstantPoolKey(createValue("foo")));
+        otherPool.getConstantId(new ConstantPoolKey(createValue("foo")));
+        constantPool.dumpConstants();
+        otherPool.dumpConstants();
+
+        sharedConstantPool.freeze();
+        Assert.assertEquals(Collections.singleton(id),
+                sharedConstantPool.getSnapshot().getIds());
+    }
+
+    @Test
+    public void sharedConstantPool_resentAfterEviction_recordedOnce() {
+        SharedConstantPool sharedConstantPool = new SharedConstantPool();
+        constantPool.setSharedConstantPool(sharedConstantPool);
+        constantPool.setMaxSize(1);
+
+        constantPool.getConstantId(new ConstantPoolKey(createValue("foo")));
+        constantPool.getConstantId(new ConstantPoolKey(createValue("bar")));
+        constantPool.dumpConstants();
+        constantPool.evictConstants(HashSet::new);
+        Assert.assertTrue(constantPool.hasEvictedConstants());
+
+        // Sent again by the same UI after being evicted
+        constantPool.getConstantId(new ConstantPoolKey(createValue("foo")));
+        Assert.assertTrue(constantPool.hasNewConstants());
+        constantPool.dumpConstants();
+
+        sharedConstantPool.freeze();
+        Assert.assertEquals(Collections.emptySet(),
+                sharedConstantPool.getSnapshot().getIds());
+    }
+
+    private static JsonObject createValue(String string) {
+        JsonObject value = Json.createObject();
+        JsonArray array = Json.createArray();
+        array.set(0, string);
+        array.set(1, 42);
+        value.put("key", array);
+        value.put("flag", false);
+        return value;
+    }
 }
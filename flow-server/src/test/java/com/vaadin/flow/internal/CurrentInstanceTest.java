@@ -19,6 +19,8 @@ import static org.junit.Assert.assertNull;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -180,4 +182,86 @@ public class CurrentInstanceTest {
         Future<Void> future = service.submit(runnable);
         future.get();
     }
+
+    @Test
+    public void getInstances_snapshotNotAffectedByLaterChanges() {
+        CurrentInstance.set(CurrentInstanceTest.class, this);
+        Map<Class<?>, CurrentInstance> snapshot = CurrentInstance
+                .getInstances();
+
+        CurrentInstance.set(CurrentInstanceTest.class, null);
+        CurrentInstance.set(String.class, "foo");
+
+        Assert.assertEquals(1, snapshot.size());
+        Assert.assertTrue(snapshot.containsKey(CurrentInstanceTest.class));
+    }
+
+    @Test
+    public void getInstances_unchanged_sameSnapshot() {
+        CurrentInstance.set(CurrentInstanceTest.class, this);
+
+        Assert.assertSame(CurrentInstance.getInstances(),
+                CurrentInstance.getInstances());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getInstances_snapshotUnmodifiable() {
+        CurrentInstance.set(CurrentInstanceTest.class, this);
+
+        CurrentInstance.getInstances().clear();
+    }
+
+    @Test
+    public void setInstances_replacesAllInstances() {
+        CurrentInstance.set(CurrentInstanceTest.class, this);
+        Map<Class<?>, CurrentInstance> snapshot = CurrentInstance
+                .getInstances();
+
+        CurrentInstance.set(String.class, "foo");
+        CurrentInstance.set(CurrentInstanceTest.class, null);
+
+        CurrentInstance.setInstances(snapshot);
+
+        Assert.assertSame(this,
+                CurrentInstance.get(CurrentInstanceTest.class));
+        Assert.assertNull(CurrentInstance.get(String.class));
+        Assert.assertSame(snapshot, CurrentInstance.getInstances());
+    }
+
+    @Test
+    public void setInstances_unmodifiableViewOfCallerMap_copied() {
+        CurrentInstance.set(CurrentInstanceTest.class, this);
+        Map<Class<?>, CurrentInstance> backing = new HashMap<>(
+                CurrentInstance.getInstances());
+        CurrentInstance.clearAll();
+
+        CurrentInstance.setInstances(Collections.unmodifiableMap(backing));
+        backing.clear();
+
+        Assert.assertSame(this,
+                CurrentInstance.get(CurrentInstanceTest.class));
+    }
+
+    @Test
+    public void setInstances_emptySnapshot_allCleared() throws Exception {
+        Map<Class<?>, CurrentInstance> snapshot = CurrentInstance
+                .getInstances();
+        CurrentInstance.set(CurrentInstanceTest.class, this);
+
+        CurrentInstance.setInstances(snapshot);
+
+        assertCleared();
+    }
+
+    @Test
+    public void setInstances_mapFromSetCurrent_nullValuesCleared() {
+        CurrentInstance.set(CurrentInstanceTest.class, this);
+        Map<Class<?>, CurrentInstance> old = CurrentInstance
+                .setCurrent((VaadinSession) null);
+
+        CurrentInstance.setInstances(old);
+
+        assertNull(CurrentInstance.get(CurrentInstanceTest.class));
+        assertNull(CurrentInstance.get(VaadinSession.class));
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class DirtyNodeIndexTest {
+
+    private DirtyNodeIndex index = new DirtyNodeIndex();
+
+    @Test
+    public void add_duplicateIgnored_insertionOrderKept() {
+        StateNode node1 = createNode(1);
+        StateNode node2 = createNode(200);
+        StateNode node3 = createNode(64);
+
+        Assert.assertTrue(index.add(node2));
+        Assert.assertTrue(index.add(node1));
+        Assert.assertFalse(index.add(node2));
+        Assert.assertTrue(index.add(node3));
+        Assert.assertFalse(index.add(node1));
+
+        Assert.assertEquals(3, index.size());
+        Assert.assertSame(node2, index.get(0));
+        Assert.assertSame(node1, index.get(1));
+        Assert.assertSame(node3, index.get(2));
+    }
+
+    @Test
+    public void drain_emptiesIndex_nodesCanBeAddedAgain() {
+        StateNode node1 = createNode(1);
+        StateNode node2 = createNode(2);
+        index.add(node1);
+        index.add(node2);
+
+        List<StateNode> drained = new ArrayList<>();
+        index.drain(drained::add);
+
+        Assert.assertEquals(2, drained.size());
+        Assert.assertTrue(index.isEmpty());
+
+        Assert.assertTrue(index.add(node2));
+        Assert.assertSame(node2, index.get(0));
+    }
+
+    @Test
+    public void drain_nodesAddedDuringDrain_queuedForNextRound() {
+        StateNode node1 = createNode(1);
+        StateNode node2 = createNode(2);
+        index.add(node1);
+
+        List<StateNode> drained = new ArrayList<>();
+        index.drain(node -> {
+            drained.add(node);
+            index.add(node1);
+            index.add(node2);
+        });
+
+        Assert.assertEquals(1, drained.size());
+        Assert.assertEquals(2, index.size());
+        Assert.assertSame(node1, index.get(0));
+        Assert.assertSame(node2, index.get(1));
+    }
+
+    @Test
+    public void add_nodeWithoutId_duplicateIgnored() {
+        StateNode node = createNode(-1);
+
+        Assert.assertTrue(index.add(node));
+        Assert.assertFalse(index.add(node));
+
+        // Node gets an id while queued
+        Mockito.when(node.getId()).thenReturn(5);
+        Assert.assertFalse(index.add(node));
+        Assert.assertEquals(1, index.size());
+    }
+
+    @Test
+    public void add_manyNodes_indexGrows() {
+        List<StateNode> nodes = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            StateNode node = createNode(i);
+            nodes.add(node);
+            Assert.assertTrue(index.add(node));
+        }
+        nodes.forEach(node -> Assert.assertFalse(index.add(node)));
+
+        List<StateNode> drained = new ArrayList<>();
+        index.drain(drained::add);
+        Assert.assertEquals(nodes, drained);
+    }
+
+    private static StateNode createNode(int id) {
+        StateNode node = Mockito.mock(StateNode.class);
+        Mockito.when(node.getId()).thenReturn(id);
+        return node;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NodeIdMapTest {
+
+    private NodeIdMap map = new NodeIdMap();
+
+    @Test
+    public void putGetRemove() {
+        StateNode node1 = new StateNode();
+        StateNode node2 = new StateNode();
+
+        Assert.assertNull(map.put(1, node1));
+        Assert.assertNull(map.put(2, node2));
+
+        Assert.assertSame(node1, map.get(1));
+        Assert.assertSame(node2, map.get(2));
+        Assert.assertNull(map.get(3));
+        Assert.assertTrue(map.containsKey(2));
+        Assert.assertEquals(2, map.size());
+
+        Assert.assertSame(node1, map.remove(1));
+        Assert.assertNull(map.remove(1));
+        Assert.assertFalse(map.containsKey(1));
+        Assert.assertSame(node2, map.get(2));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void put_existingId_previousNodeReplaced() {
+        StateNode node1 = new StateNode();
+        StateNode node2 = new StateNode();
+
+        map.put(5, node1);
+        Assert.assertSame(node1, map.put(5, node2));
+        Assert.assertSame(node2, map.get(5));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void nonPositiveIds_notFound() {
+        Assert.assertNull(map.get(0));
+        Assert.assertNull(map.get(-1));
+        Assert.assertNull(map.remove(-1));
+    }
+
+    @Test
+    public void randomOperations_sameAsHashMap() {
+        Map<Integer, StateNode> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            int id = 1 + random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                Assert.assertSame(reference.remove(id), map.remove(id));
+            } else {
+                StateNode node = new StateNode();
+                Assert.assertSame(reference.put(id, node), map.put(id, node));
+            }
+            Assert.assertEquals(reference.size(), map.size());
+        }
+
+        for (int id = 1; id <= 2000; id++) {
+            Assert.assertSame(reference.get(id), map.get(id));
+        }
+
+        // Remove everything to exercise shrinking
+        for (int id = 1; id <= 2000; id++) {
+            Assert.assertSame(reference.remove(id), map.remove(id));
+        }
+        Assert.assertEquals(0, map.size());
+    }
+}
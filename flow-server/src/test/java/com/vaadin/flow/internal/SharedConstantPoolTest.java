@@ -0,0 +1,94 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.internal.SharedConstantPool.Snapshot;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+public class SharedConstantPoolTest {
+
+    private SharedConstantPool pool = new SharedConstantPool();
+
+    @Test
+    public void warmingUp_noSnapshot() {
+        for (int i = 0; i < SharedConstantPool.WARM_UP_UIS; i++) {
+            Assert.assertNull(pool.getSnapshotForBootstrap());
+        }
+        Assert.assertNull(pool.getSnapshot());
+
+        Snapshot snapshot = pool.getSnapshotForBootstrap();
+        Assert.assertNotNull(snapshot);
+        Assert.assertSame(snapshot, pool.getSnapshot());
+        Assert.assertSame(snapshot, pool.getSnapshotForBootstrap());
+    }
+
+    @Test
+    public void freeze_onlyConstantsUsedByManyUisShared() {
+        pool.record("shared", Json.create("foo"));
+        pool.record("shared", Json.create("foo"));
+        pool.record("single", Json.create("bar"));
+
+        pool.freeze();
+
+        Snapshot snapshot = pool.getSnapshot();
+        Assert.assertEquals(1, snapshot.getIds().size());
+        Assert.assertTrue(snapshot.getIds().contains("shared"));
+
+        JsonObject json = Json.parse(snapshot.toJson());
+        Assert.assertEquals("foo", json.getString("shared"));
+
+        // Recording after freezing has no effect
+        pool.record("single", Json.create("bar"));
+        pool.freeze();
+        Assert.assertSame(snapshot, pool.getSnapshot());
+        Assert.assertFalse(pool.getSnapshot().getIds().contains("single"));
+    }
+
+    @Test
+    public void script_registersConstantsByHash() {
+        pool.record("id", Json.createObject());
+        pool.record("id", Json.createObject());
+        pool.freeze();
+
+        Snapshot snapshot = pool.getSnapshot();
+        String script = new String(snapshot.getScript(),
+                StandardCharsets.UTF_8);
+
+        Assert.assertEquals(16, snapshot.getHash().length());
+        Assert.assertTrue(script.contains("['" + snapshot.getHash() + "']="
+                + snapshot.toJson()));
+    }
+
+    @Test
+    public void sameConstants_sameHash() {
+        SharedConstantPool other = new SharedConstantPool();
+        for (SharedConstantPool p : new SharedConstantPool[] { pool, other }) {
+            p.record("id", Json.create(1));
+            p.record("id", Json.create(1));
+            p.freeze();
+        }
+
+        Assert.assertEquals(pool.getSnapshot().getHash(),
+                other.getSnapshot().getHash());
+    }
+}
@@ -18,9 +18,11 @@ package com.vaadin.flow.internal;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -605,6 +607,45 @@ public class StateNodeTest {
                 });
     }
 
+    @Test
+    public void attachDetachLargeSubtree_allNodesVisitedOnce() {
+        StateTree tree = new StateTree(new UI().getInternals(),
+                ElementChildrenList.class);
+
+        // 5K nodes: 50 parents with 100 children each
+        List<StateNode> nodes = new ArrayList<>();
+        StateNode subtree = createParentNode("subtree");
+        nodes.add(subtree);
+        for (int i = 0; i < 50; i++) {
+            StateNode parent = createParentNode("parent" + i);
+            setParent(parent, subtree);
+            nodes.add(parent);
+            for (int j = 0; j < 100; j++) {
+                StateNode child = createParentNode("child" + j);
+                setParent(child, parent);
+                nodes.add(child);
+            }
+        }
+        Map<StateNode, Integer> visits = new HashMap<>();
+        subtree.visitNodeTree(node -> visits.merge(node, 1, Integer::sum));
+        Assert.assertEquals(nodes.size(), visits.size());
+        Assert.assertTrue(visits.values().stream().allMatch(n -> n == 1));
+
+        for (int i = 0; i < 2; i++) {
+            setParent(subtree, tree.getRootNode());
+            Assert.assertTrue(nodes.stream().allMatch(StateNode::isAttached));
+
+            Set<StateNode> changed = new HashSet<>();
+            tree.collectChanges(change -> changed.add(change.getNode()));
+            Assert.assertTrue(changed.containsAll(nodes));
+
+            setParent(subtree, null);
+            Assert.assertTrue(nodes.stream().noneMatch(StateNode::isAttached));
+            tree.collectChanges(change -> {
+            });
+        }
+    }
+
     @Test
     public void collectChanges_initiallyInactiveElement_sendOnlyDisalowAndReportedFeatures_sendAllChangesWhenActive() {
         Element element = ElementFactory.createAnchor();
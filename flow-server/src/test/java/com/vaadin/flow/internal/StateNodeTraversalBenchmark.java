@@ -0,0 +1,80 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.nodefeature.ElementChildrenList;
+
+/**
+ * Measures attaching, detaching and collecting the changes of a large state
+ * node subtree. Not run as part of the unit tests since timings are not
+ * reliable on shared build machines. Run the main method manually to compare
+ * traversal changes.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class StateNodeTraversalBenchmark {
+
+    private static final int PARENTS = 50;
+    private static final int CHILDREN_PER_PARENT = 100;
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 200;
+
+    public static void main(String[] args) {
+        StateTree tree = new StateTree(new UI().getInternals(),
+                ElementChildrenList.class);
+        StateNode subtree = createSubtree();
+
+        runRounds(tree, subtree, WARM_UP_ROUNDS);
+
+        long start = System.nanoTime();
+        runRounds(tree, subtree, MEASURED_ROUNDS);
+        long time = System.nanoTime() - start;
+
+        System.out.println("Attach and detach of a "
+                + PARENTS * (CHILDREN_PER_PARENT + 1) + " node subtree: "
+                + TimeUnit.NANOSECONDS.toMicros(time) / MEASURED_ROUNDS
+                + " us per round");
+    }
+
+    private static StateNode createSubtree() {
+        StateNode subtree = StateNodeTest.createParentNode("subtree");
+        for (int i = 0; i < PARENTS; i++) {
+            StateNode parent = StateNodeTest.createParentNode("parent" + i);
+            StateNodeTest.setParent(parent, subtree);
+            for (int j = 0; j < CHILDREN_PER_PARENT; j++) {
+                StateNodeTest.setParent(
+                        StateNodeTest.createParentNode("child" + j), parent);
+            }
+        }
+        return subtree;
+    }
+
+    private static void runRounds(StateTree tree, StateNode subtree,
+            int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            StateNodeTest.setParent(subtree, tree.getRootNode());
+            tree.collectChanges(change -> {
+            });
+            StateNodeTest.setParent(subtree, null);
+            tree.collectChanges(change -> {
+            });
+        }
+    }
+}
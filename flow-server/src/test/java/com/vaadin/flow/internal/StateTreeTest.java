@@ -88,6 +88,11 @@ public class StateTreeTest {
                 protected void populateJson(JsonObject json,
                         ConstantPool constantPool) {
                 }
+
+                @Override
+                protected int getCompactType() {
+                    return 0;
+                }
             });
         }
     }
@@ -553,4 +558,76 @@ public class StateTreeTest {
         Assert.assertTrue(collectedNodes.contains(node3));
     }
 
+    @Test
+    public void indexedDirtyNodeTracking_collectionOrderIsPreserved() {
+        tree.setIndexedDirtyNodeTracking(true);
+        Assert.assertTrue(tree.isIndexedDirtyNodeTracking());
+
+        StateNode rootNode = tree.getRootNode();
+        List<StateNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            StateNode node = StateNodeTest.createEmptyNode("node" + i);
+            nodes.add(node);
+            StateNodeTest.setParent(node, rootNode);
+        }
+
+        nodes.forEach(StateNode::markAsDirty);
+        List<StateNode> expected = new ArrayList<>();
+        expected.add(rootNode);
+        expected.addAll(nodes);
+
+        Assert.assertArrayEquals(expected.toArray(),
+                tree.collectDirtyNodes().toArray());
+        Assert.assertFalse(tree.hasDirtyNodes());
+
+        List<StateNode> reversed = new ArrayList<>(nodes);
+        Collections.reverse(reversed);
+        reversed.forEach(StateNode::markAsDirty);
+        nodes.forEach(StateNode::markAsDirty);
+        Assert.assertArrayEquals(reversed.toArray(),
+                tree.collectDirtyNodes().toArray());
+    }
+
+    @Test
+    public void indexedDirtyNodeTracking_switchMode_dirtyNodesRetained() {
+        StateNode rootNode = tree.getRootNode();
+        StateNode node = StateNodeTest.createEmptyNode("node");
+        StateNodeTest.setParent(node, rootNode);
+
+        tree.setIndexedDirtyNodeTracking(true);
+        Assert.assertTrue(tree.hasDirtyNodes());
+
+        tree.setIndexedDirtyNodeTracking(false);
+        Assert.assertFalse(tree.isIndexedDirtyNodeTracking());
+
+        Assert.assertArrayEquals(new Object[] { rootNode, node },
+                tree.collectDirtyNodes().toArray());
+    }
+
+    @Test
+    public void indexedDirtyNodeTracking_collectChanges_sameAsDefault() {
+        tree.setIndexedDirtyNodeTracking(true);
+
+        StateNode node = StateNodeTest.createEmptyNode();
+        StateNodeTest.setParent(node, tree.getRootNode());
+
+        List<NodeChange> changes = collectChangesExceptChildrenAddRemove();
+        Assert.assertEquals(1, changes.size());
+        Assert.assertSame(node, changes.get(0).getNode());
+        Assert.assertTrue(changes.get(0) instanceof NodeAttachChange);
+
+        Assert.assertFalse(tree.isDirty());
+
+        StateNodeTest.setParent(node, null);
+
+        changes = collectChangesExceptChildrenAddRemove();
+        Assert.assertEquals(1, changes.size());
+        Assert.assertTrue(changes.get(0) instanceof NodeDetachChange);
+    }
+
+    @Test
+    public void indexedDirtyNodeTracking_parentIsInactive_childrenAreCollected() {
+        tree.setIndexedDirtyNodeTracking(true);
+        collectChanges_parentIsInactive_childrenAreCollected();
+    }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void newExecutor_presentOnlyWhenSupported() throws Exception {
+        Optional<ExecutorService> executor = VirtualThreads.newExecutor();
+
+        Assert.assertEquals(VirtualThreads.isSupported(),
+                executor.isPresent());
+
+        if (executor.isPresent()) {
+            Object isVirtual = executor.get()
+                    .submit(() -> Thread.class.getMethod("isVirtual")
+                            .invoke(Thread.currentThread()))
+                    .get(5, TimeUnit.SECONDS);
+            executor.get().shutdown();
+
+            Assert.assertEquals(Boolean.TRUE, isVirtual);
+        }
+    }
+
+    @Test
+    public void isSupported_matchesExecutorsApi() {
+        boolean hasApi;
+        try {
+            java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor");
+            hasApi = true;
+        } catch (NoSuchMethodException e) {
+            hasApi = false;
+        }
+
+        Assert.assertEquals(hasApi, VirtualThreads.isSupported());
+    }
+}
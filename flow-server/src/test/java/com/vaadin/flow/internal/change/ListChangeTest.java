@@ -82,4 +82,90 @@ public class ListChangeTest {
 
         Assert.assertFalse(json.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES));
     }
+
+    @Test
+    public void testSpliceJson() {
+        StateNode child = StateNodeTest.createEmptyNode("child");
+        ListSpliceChange<StateNode> change = new ListSpliceChange<>(feature,
+                true, 2, 3, Arrays.asList(child));
+
+        JsonObject json = change.toJson(null);
+
+        Assert.assertEquals(JsonConstants.CHANGE_TYPE_SPLICE,
+                json.getString(JsonConstants.CHANGE_TYPE));
+        Assert.assertEquals(2,
+                (int) json.getNumber(JsonConstants.CHANGE_SPLICE_INDEX));
+        Assert.assertEquals(3,
+                (int) json.getNumber(JsonConstants.CHANGE_SPLICE_REMOVE));
+
+        JsonArray addNodes = json
+                .getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES);
+        Assert.assertEquals(1, addNodes.length());
+        Assert.assertEquals(child.getId(), (int) addNodes.getNumber(0));
+    }
+
+    @Test
+    public void testSpliceWithoutItems_noAddInJson() {
+        ListSpliceChange<StateNode> change = new ListSpliceChange<>(feature,
+                false, 0, 1, Arrays.asList());
+
+        JsonObject json = change.toJson(null);
+
+        Assert.assertEquals(1,
+                (int) json.getNumber(JsonConstants.CHANGE_SPLICE_REMOVE));
+        Assert.assertFalse(json.hasKey(JsonConstants.CHANGE_SPLICE_ADD));
+        Assert.assertFalse(json.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES));
+    }
+
+    @Test
+    public void testCompactJson() {
+        StateNode child1 = StateNodeTest.createEmptyNode("child1");
+        StateNode child2 = StateNodeTest.createEmptyNode("child2");
+        ListAddChange<StateNode> change = new ListAddChange<>(feature, true, 0,
+                Arrays.asList(child1, child2));
+
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(6, json.length());
+        Assert.assertEquals(JsonConstants.CHANGE_CODE_SPLICE_NODES,
+                (int) json.getNumber(0));
+        Assert.assertEquals(change.getNode().getId(), (int) json.getNumber(1));
+        Assert.assertEquals(NodeFeatureRegistry.getId(feature.getClass()),
+                (int) json.getNumber(2));
+        Assert.assertEquals(0, (int) json.getNumber(3));
+        Assert.assertEquals(0, (int) json.getNumber(4));
+
+        JsonArray addNodes = json.getArray(5);
+        Assert.assertEquals(2, addNodes.length());
+        Assert.assertEquals(child1.getId(), (int) addNodes.getNumber(0));
+        Assert.assertEquals(child2.getId(), (int) addNodes.getNumber(1));
+    }
+
+    @Test
+    public void testCompactSpliceWithoutItems_noAddInJson() {
+        ListSpliceChange<StateNode> change = new ListSpliceChange<>(feature,
+                false, 2, 3, Arrays.asList());
+
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(5, json.length());
+        Assert.assertEquals(JsonConstants.CHANGE_CODE_SPLICE,
+                (int) json.getNumber(0));
+        Assert.assertEquals(2, (int) json.getNumber(3));
+        Assert.assertEquals(3, (int) json.getNumber(4));
+    }
+
+    @Test
+    public void testCompactRemoveJson() {
+        ListRemoveChange<StateNode> change = new ListRemoveChange<>(feature, 4,
+                StateNodeTest.createEmptyNode("removed"));
+
+        JsonArray json = change.toCompactJson(null);
+
+        Assert.assertEquals(5, json.length());
+        Assert.assertEquals(JsonConstants.CHANGE_CODE_SPLICE,
+                (int) json.getNumber(0));
+        Assert.assertEquals(4, (int) json.getNumber(3));
+        Assert.assertEquals(1, (int) json.getNumber(4));
+    }
 }
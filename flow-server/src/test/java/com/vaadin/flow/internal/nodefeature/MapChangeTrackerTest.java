@@ -0,0 +1,114 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal.nodefeature;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MapChangeTrackerTest {
+
+    private MapChangeTracker tracker = new MapChangeTracker();
+
+    @Test
+    public void singleChange() {
+        Assert.assertTrue(tracker.isEmpty());
+
+        tracker.put("foo", "bar");
+        Assert.assertEquals(1, tracker.size());
+        Assert.assertTrue(tracker.containsKey("foo"));
+        Assert.assertFalse(tracker.containsKey("bar"));
+        Assert.assertEquals("foo", tracker.getKey(0));
+        Assert.assertEquals("bar", tracker.getValue(0));
+
+        tracker.put("foo", "baz");
+        Assert.assertEquals(1, tracker.size());
+        Assert.assertEquals("baz", tracker.getValue(0));
+
+        tracker.remove("foo");
+        Assert.assertTrue(tracker.isEmpty());
+        Assert.assertFalse(tracker.containsKey("foo"));
+    }
+
+    @Test
+    public void fewChanges() {
+        tracker.put("a", "1");
+        tracker.put("b", "2");
+        tracker.put("c", "3");
+
+        assertContents(tracker, "a", "1", "b", "2", "c", "3");
+
+        tracker.remove("a");
+        assertContents(tracker, "b", "2", "c", "3");
+
+        tracker.put("b", "4");
+        assertContents(tracker, "b", "4", "c", "3");
+    }
+
+    @Test
+    public void manyChanges() {
+        Map<String, Serializable> expected = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            tracker.put("key" + i, Integer.valueOf(i));
+            expected.put("key" + i, Integer.valueOf(i));
+        }
+        Assert.assertEquals(expected, toMap(tracker));
+
+        for (int i = 0; i < 100; i += 2) {
+            tracker.remove("key" + i);
+            expected.remove("key" + i);
+        }
+        Assert.assertEquals(expected, toMap(tracker));
+        Assert.assertFalse(tracker.containsKey("key0"));
+        Assert.assertTrue(tracker.containsKey("key1"));
+
+        for (int i = 1; i < 100; i += 2) {
+            tracker.remove("key" + i);
+        }
+        Assert.assertTrue(tracker.isEmpty());
+
+        tracker.put("foo", "bar");
+        assertContents(tracker, "foo", "bar");
+    }
+
+    @Test
+    public void nullValue_isTracked() {
+        tracker.put("foo", null);
+        Assert.assertTrue(tracker.containsKey("foo"));
+        Assert.assertNull(tracker.getValue(0));
+    }
+
+    private static void assertContents(MapChangeTracker tracker,
+            String... keysAndValues) {
+        Map<String, Serializable> expected = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            expected.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        Assert.assertEquals(expected, toMap(tracker));
+    }
+
+    private static Map<String, Serializable> toMap(MapChangeTracker tracker) {
+        Map<String, Serializable> map = new HashMap<>();
+        for (int i = 0; i < tracker.size(); i++) {
+            map.put(tracker.getKey(i), tracker.getValue(i));
+        }
+        Assert.assertEquals(tracker.size(), map.size());
+        return map;
+    }
+}
@@ -13,6 +13,7 @@ import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.internal.change.ListAddChange;
 import com.vaadin.flow.internal.change.ListClearChange;
 import com.vaadin.flow.internal.change.ListRemoveChange;
+import com.vaadin.flow.internal.change.ListSpliceChange;
 import com.vaadin.flow.internal.change.NodeAttachChange;
 import com.vaadin.flow.internal.change.NodeChange;
 
@@ -300,6 +301,104 @@ public class NodeListAddRemoveTest
         Assert.assertTrue(changes.get(0) instanceof ListAddChange<?>);
     }
 
+    @Test
+    public void coalescing_adjacentAdds_singleAddChange() {
+        addOriginalItems(2);
+        attachToCoalescingTree();
+
+        nodeList.add("foo");
+        nodeList.add("bar");
+        nodeList.add(2, "baz");
+
+        List<NodeChange> changes = collectChanges(nodeList);
+
+        Assert.assertEquals(1, changes.size());
+        ListAddChange<?> change = (ListAddChange<?>) changes.get(0);
+        Assert.assertEquals(2, change.getIndex());
+        Assert.assertEquals(Arrays.asList("baz", "foo", "bar"),
+                change.getNewItems());
+    }
+
+    @Test
+    public void coalescing_removeRun_singleSpliceChange() {
+        addOriginalItems(5);
+        attachToCoalescingTree();
+
+        nodeList.remove(1);
+        nodeList.remove(1);
+        nodeList.remove(0);
+
+        List<NodeChange> changes = collectChanges(nodeList);
+
+        Assert.assertEquals(1, changes.size());
+        ListSpliceChange<?> change = (ListSpliceChange<?>) changes.get(0);
+        Assert.assertEquals(0, change.getIndex());
+        Assert.assertEquals(3, change.getRemoveCount());
+        Assert.assertTrue(change.getNewItems().isEmpty());
+        verifyNodeListContent("o-3", "o-4");
+    }
+
+    @Test
+    public void coalescing_removeThenAddAtSameIndex_singleSpliceChange() {
+        addOriginalItems(3);
+        attachToCoalescingTree();
+
+        nodeList.remove(1);
+        nodeList.add(1, "foo");
+
+        List<NodeChange> changes = collectChanges(nodeList);
+
+        Assert.assertEquals(1, changes.size());
+        ListSpliceChange<?> change = (ListSpliceChange<?>) changes.get(0);
+        Assert.assertEquals(1, change.getIndex());
+        Assert.assertEquals(1, change.getRemoveCount());
+        Assert.assertEquals(Arrays.asList("foo"), change.getNewItems());
+    }
+
+    @Test
+    public void coalescing_nonAdjacentChanges_notMerged() {
+        addOriginalItems(5);
+        attachToCoalescingTree();
+
+        nodeList.remove(0);
+        nodeList.remove(2);
+
+        List<NodeChange> changes = collectChanges(nodeList);
+
+        Assert.assertEquals(2, changes.size());
+        Assert.assertThat(changes.get(0),
+                CoreMatchers.instanceOf(ListRemoveChange.class));
+        Assert.assertThat(changes.get(1),
+                CoreMatchers.instanceOf(ListRemoveChange.class));
+    }
+
+    @Test
+    public void coalescing_clearIsNotMerged() {
+        addOriginalItems(2);
+        attachToCoalescingTree();
+
+        nodeList.add("foo");
+        nodeList.clear();
+        nodeList.add("bar");
+
+        List<NodeChange> changes = collectChanges(nodeList);
+
+        Assert.assertEquals(2, changes.size());
+        Assert.assertThat(changes.get(0),
+                CoreMatchers.instanceOf(ListClearChange.class));
+        Assert.assertThat(changes.get(1),
+                CoreMatchers.instanceOf(ListAddChange.class));
+    }
+
+    private void attachToCoalescingTree() {
+        StateTree tree = new StateTree(new UI().getInternals(),
+                ElementChildrenList.class);
+        tree.setListChangeCoalescing(true);
+        tree.getRootNode().getFeature(ElementChildrenList.class)
+                .add(nodeList.getNode());
+        collectChanges(nodeList);
+    }
+
     private List<String> addOriginalItems(int numberOfOriginalItems) {
         List<String> items = new ArrayList<>();
         for (int i = 0; i < numberOfOriginalItems; i++) {
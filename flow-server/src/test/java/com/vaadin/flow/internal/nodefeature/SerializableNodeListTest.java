@@ -17,6 +17,7 @@ package com.vaadin.flow.internal.nodefeature;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -24,11 +25,14 @@ import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.change.ListRemoveChange;
 import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.internal.nodefeature.ElementClassList;
 import com.vaadin.flow.internal.nodefeature.NodeList;
 
+import elemental.json.Json;
+
 public class SerializableNodeListTest
         extends AbstractNodeFeatureTest<ElementClassList> {
 
@@ -62,6 +66,21 @@ public class SerializableNodeListTest
 
     }
 
+    @Test
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public void forEachConstantId_constantValuesReported() {
+        // None of the built-in lists stores constants
+        NodeList list = nodeList;
+        ConstantPoolKey key = new ConstantPoolKey(Json.create("foo"));
+        list.add("bar");
+        list.add(key);
+
+        List<String> ids = new ArrayList<>();
+        nodeList.forEachConstantId(ids::add);
+
+        Assert.assertEquals(Collections.singletonList(key.getId()), ids);
+    }
+
     @Test
     public void testRemoveUsingIterator() {
         nodeList.add("1");
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.MockSessionWithUIs.TestUI;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+public class HeartbeatExpiryWheelTest {
+
+    private MockVaadinServletService service;
+    private MockSessionWithUIs session;
+    private HeartbeatExpiryWheel wheel;
+
+    @Before
+    public void setup() {
+        service = new MockVaadinServletService();
+        service.init();
+
+        session = new MockSessionWithUIs(service);
+        wheel = new HeartbeatExpiryWheel(service, 1000, false);
+    }
+
+    @After
+    public void tearDown() {
+        wheel.shutdown();
+    }
+
+    @Test
+    public void tick_heartbeatExpired_uiClosedAndRemoved() {
+        UI ui = session.addUI(1);
+        ui.getInternals().setLastHeartbeatTimestamp(0);
+        wheel.schedule(ui);
+
+        wheel.tick();
+
+        Assert.assertEquals(0, wheel.getScheduledUICount());
+        Assert.assertNull(ui.getSession());
+        session.lock();
+        try {
+            Assert.assertTrue(session.getUIs().isEmpty());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void tick_heartbeatExpired_uiCurrentWhenClosed() {
+        AtomicReference<UI> currentOnClose = new AtomicReference<>();
+        UI ui = session.attachUI(new TestUI(1) {
+            @Override
+            public void close() {
+                currentOnClose.set(UI.getCurrent());
+                super.close();
+            }
+        });
+        ui.getInternals().setLastHeartbeatTimestamp(0);
+        wheel.schedule(ui);
+
+        wheel.tick();
+
+        Assert.assertSame(ui, currentOnClose.get());
+    }
+
+    @Test
+    public void tick_heartbeatAlive_uiKept() {
+        UI ui = session.addUI(1);
+        wheel.schedule(ui);
+
+        for (int i = 0; i < HeartbeatExpiryWheel.WHEEL_SIZE * 2; i++) {
+            wheel.tick();
+        }
+
+        Assert.assertEquals(1, wheel.getScheduledUICount());
+        session.lock();
+        try {
+            Assert.assertFalse(ui.isClosing());
+            Assert.assertSame(ui, session.getUIById(1));
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void tick_heartbeatExpiredAfterRevolutions_uiClosed() {
+        UI ui = session.addUI(1);
+        wheel.schedule(ui);
+
+        for (int i = 0; i < HeartbeatExpiryWheel.WHEEL_SIZE * 2; i++) {
+            wheel.tick();
+        }
+        ui.getInternals().setLastHeartbeatTimestamp(0);
+        for (int i = 0; i < HeartbeatExpiryWheel.WHEEL_SIZE; i++) {
+            wheel.tick();
+        }
+
+        Assert.assertEquals(0, wheel.getScheduledUICount());
+        Assert.assertNull(ui.getSession());
+    }
+
+    @Test
+    public void tick_uiAlreadyRemoved_forgotten() {
+        UI ui = session.addUI(1);
+        ui.getInternals().setLastHeartbeatTimestamp(0);
+        wheel.schedule(ui);
+        ui.accessSynchronously(() -> session.removeUI(ui));
+
+        wheel.tick();
+
+        Assert.assertEquals(0, wheel.getScheduledUICount());
+    }
+
+    @Test
+    public void schedule_sameUITwice_trackedOnce() {
+        UI ui = session.addUI(1);
+
+        wheel.schedule(ui);
+        wheel.schedule(ui);
+
+        Assert.assertEquals(1, wheel.getScheduledUICount());
+    }
+
+    @Test
+    public void wheelEnabled_addedUIsScheduled() {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.HEARTBEAT_EXPIRY_WHEEL, "true");
+        MockVaadinServletService wheelService = new MockVaadinServletService(
+                configuration);
+        wheelService.init();
+        try {
+            Assert.assertNull(service.getHeartbeatExpiryWheel());
+            HeartbeatExpiryWheel serviceWheel = wheelService
+                    .getHeartbeatExpiryWheel();
+            Assert.assertNotNull(serviceWheel);
+
+            session = new MockSessionWithUIs(wheelService);
+            session.addUI(1);
+
+            Assert.assertEquals(1, serviceWheel.getScheduledUICount());
+        } finally {
+            wheelService.destroy();
+        }
+    }
+
+    @Test
+    public void unschedule_uiForgottenAndNotClosed() {
+        UI ui = session.addUI(1);
+        ui.getInternals().setLastHeartbeatTimestamp(0);
+        wheel.schedule(ui);
+
+        wheel.unschedule(ui);
+
+        Assert.assertEquals(0, wheel.getScheduledUICount());
+        Assert.assertEquals(0, wheel.getBucketedUICount());
+        for (int i = 0; i < HeartbeatExpiryWheel.WHEEL_SIZE; i++) {
+            wheel.tick();
+        }
+        Assert.assertSame(session, ui.getSession());
+    }
+
+    @Test
+    public void wheelEnabled_removedAndDestroyedUIsUnscheduled() {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.HEARTBEAT_EXPIRY_WHEEL, "true");
+        MockVaadinServletService wheelService = new MockVaadinServletService(
+                configuration);
+        wheelService.init();
+        try {
+            HeartbeatExpiryWheel serviceWheel = wheelService
+                    .getHeartbeatExpiryWheel();
+            session = new MockSessionWithUIs(wheelService);
+            UI removed = session.addUI(1);
+            session.addUI(2);
+            Assert.assertEquals(2, serviceWheel.getScheduledUICount());
+
+            removed.accessSynchronously(() -> session.removeUI(removed));
+            Assert.assertEquals(1, serviceWheel.getScheduledUICount());
+
+            wheelService.fireSessionDestroy(session);
+            Assert.assertEquals(0, serviceWheel.getScheduledUICount());
+            Assert.assertEquals(0, serviceWheel.getBucketedUICount());
+        } finally {
+            wheelService.destroy();
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * Mock session backed by a mocked wrapped session, for testing the background
+ * cleanup of sessions and UIs.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class MockSessionWithUIs extends MockVaadinSession {
+
+    /**
+     * UI with a fixed id.
+     */
+    public static class TestUI extends UI {
+        private final int id;
+
+        public TestUI(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int getUIId() {
+            return id;
+        }
+    }
+
+    private final WrappedSession wrappedSession;
+
+    public MockSessionWithUIs(VaadinService service) {
+        super(service);
+        wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession.getId()).thenReturn("session");
+        Mockito.when(
+                wrappedSession.getAttribute(service.getServiceName() + ".lock"))
+                .thenReturn(getLockInstance());
+    }
+
+    @Override
+    public WrappedSession getSession() {
+        return wrappedSession;
+    }
+
+    /**
+     * Adds a new UI with the given id to this session.
+     *
+     * @param id
+     *            the id of the UI
+     * @return the added UI
+     */
+    public UI addUI(int id) {
+        return attachUI(new TestUI(id));
+    }
+
+    /**
+     * Adds the given UI to this session.
+     *
+     * @param ui
+     *            the UI to add
+     * @return the added UI
+     */
+    public UI attachUI(UI ui) {
+        ui.getInternals().setSession(this);
+        lock();
+        try {
+            addUI(ui);
+        } finally {
+            unlock();
+        }
+        return ui;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+public class SessionAccessExecutorTest {
+
+    private MockVaadinServletService service;
+    private MockVaadinSession session;
+
+    @Before
+    public void setup() {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.SESSION_ACCESS_EXECUTOR, "true");
+        service = new MockVaadinServletService(configuration);
+        service.init();
+        session = new MockVaadinSession(service);
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    public void executorNotEnabled_noExecutor() {
+        MockVaadinServletService defaultService = new MockVaadinServletService();
+        defaultService.init();
+
+        Assert.assertNull(defaultService.getSessionAccessExecutor());
+    }
+
+    @Test
+    public void virtualThreadsEnabled_executorCreatedAndTasksRun()
+            throws Exception {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(Constants.VIRTUAL_THREADS,
+                "true");
+        MockVaadinServletService virtualService = new MockVaadinServletService(
+                configuration);
+        virtualService.init();
+        try {
+            SessionAccessExecutor executor = virtualService
+                    .getSessionAccessExecutor();
+            // Falls back to platform threads if virtual threads are missing
+            Assert.assertNotNull(executor);
+
+            MockVaadinSession virtualSession = new MockVaadinSession(
+                    virtualService);
+            virtualSession.access(() -> {
+            }).get(5, TimeUnit.SECONDS);
+
+            Assert.assertEquals(1, executor.getExecutedTaskCount());
+        } finally {
+            virtualService.destroy();
+        }
+    }
+
+    @Test
+    public void access_sessionNotLocked_runByExecutorThread()
+            throws Exception {
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+
+        Future<Void> future = session.access(() -> threadNames
+                .add(Thread.currentThread().getName()));
+        future.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, threadNames.size());
+        Assert.assertTrue(threadNames.get(0)
+                .startsWith("vaadin-session-access-"));
+
+        SessionAccessExecutor executor = service.getSessionAccessExecutor();
+        Assert.assertEquals(1, executor.getExecutedTaskCount());
+        Assert.assertEquals(0, executor.getQueueDepth(session));
+        Assert.assertTrue(executor.getMaxWaitTime(
+                TimeUnit.NANOSECONDS) >= executor
+                        .getAverageWaitTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void access_sessionLocked_runAfterUnlockByExecutor()
+            throws Exception {
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+
+        session.lock();
+        Future<Void> future;
+        try {
+            future = session.access(() -> threadNames
+                    .add(Thread.currentThread().getName()));
+
+            Thread.sleep(50);
+            Assert.assertFalse(future.isDone());
+            Assert.assertEquals(1, service.getSessionAccessExecutor()
+                    .getQueueDepth(session));
+        } finally {
+            session.unlock();
+        }
+
+        future.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, threadNames.size());
+        Assert.assertNotEquals(Thread.currentThread().getName(),
+                threadNames.get(0));
+    }
+
+    @Test
+    public void access_manyTasks_allRunInOrder() throws Exception {
+        List<Integer> values = new CopyOnWriteArrayList<>();
+
+        Future<Void> last = null;
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            last = session.access(() -> values.add(Integer.valueOf(value)));
+        }
+        last.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(100, values.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, values.get(i).intValue());
+        }
+        Assert.assertEquals(100,
+                service.getSessionAccessExecutor().getExecutedTaskCount());
+    }
+
+    @Test
+    public void accessSynchronously_runByCurrentThread() {
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+
+        session.accessSynchronously(
+                () -> threadNames.add(Thread.currentThread().getName()));
+
+        Assert.assertEquals(1, threadNames.size());
+        Assert.assertEquals(Thread.currentThread().getName(),
+                threadNames.get(0));
+    }
+}
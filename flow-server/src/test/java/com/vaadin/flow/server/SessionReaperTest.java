@@ -0,0 +1,141 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+public class SessionReaperTest {
+
+    private MockVaadinServletService service;
+    private MockSessionWithUIs session;
+    private SessionReaper reaper;
+
+    @Before
+    public void setup() {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.BACKGROUND_SESSION_CLEANUP, "true");
+        service = new MockVaadinServletService(configuration);
+        service.init();
+
+        reaper = service.getSessionReaper();
+
+        session = new MockSessionWithUIs(service);
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    public void backgroundCleanupNotEnabled_noReaper() {
+        MockVaadinServletService defaultService = new MockVaadinServletService();
+        defaultService.init();
+
+        Assert.assertNull(defaultService.getSessionReaper());
+    }
+
+    @Test
+    public void reap_inactiveUI_closedAndRemoved() {
+        UI activeUI = session.addUI(1);
+        UI inactiveUI = session.addUI(2);
+        inactiveUI.getInternals().setLastHeartbeatTimestamp(0);
+
+        reaper.register(session);
+        reaper.reap();
+
+        session.lock();
+        try {
+            Assert.assertTrue(inactiveUI.isClosing());
+            Assert.assertFalse(activeUI.isClosing());
+            Assert.assertEquals(1, session.getUIs().size());
+            Assert.assertSame(activeUI, session.getUIs().iterator().next());
+        } finally {
+            session.unlock();
+        }
+        Assert.assertEquals(1, reaper.getSessionCount());
+    }
+
+    @Test
+    public void reap_sessionLockedByOtherThread_skipped()
+            throws InterruptedException {
+        UI inactiveUI = session.addUI(1);
+        inactiveUI.getInternals().setLastHeartbeatTimestamp(0);
+        reaper.register(session);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch reaped = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            session.lock();
+            try {
+                locked.countDown();
+                reaped.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                session.getLockInstance().unlock();
+            }
+        });
+        holder.start();
+        locked.await(5, TimeUnit.SECONDS);
+
+        reaper.reap();
+
+        reaped.countDown();
+        holder.join();
+
+        session.lock();
+        try {
+            Assert.assertFalse(inactiveUI.isClosing());
+        } finally {
+            session.unlock();
+        }
+
+        reaper.reap();
+
+        session.lock();
+        try {
+            Assert.assertTrue(inactiveUI.isClosing());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void reap_closedSession_unregistered() {
+        reaper.register(session);
+        session.lock();
+        try {
+            session.close();
+        } finally {
+            session.unlock();
+        }
+
+        reaper.reap();
+
+        Assert.assertEquals(0, reaper.getSessionCount());
+    }
+}
@@ -472,4 +472,109 @@ public class StaticFileServerTest implements Serializable {
                 responseCode.get());
     }
 
+    @Test
+    public void resourceCacheEnabled_resourceResolvedOnceAndServedWithETag()
+            throws IOException {
+        fileServer = createCachingFileServer();
+        setupRequestURI("", "/some", "/file.js");
+        byte[] fileData = "function() {eval('foo');};"
+                .getBytes(StandardCharsets.UTF_8);
+        Mockito.when(servletService.getStaticResource("/some/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/some/file.js",
+                        fileData));
+        Mockito.when(servletContext.getMimeType("/some/file.js"))
+                .thenReturn("application/javascript");
+
+        for (int i = 0; i < 2; i++) {
+            CapturingServletOutputStream out = new CapturingServletOutputStream();
+            Mockito.when(response.getOutputStream()).thenReturn(out);
+
+            Assert.assertTrue(fileServer.isStaticResourceRequest(request));
+            Assert.assertTrue(
+                    fileServer.serveStaticResource(request, response));
+            Assert.assertArrayEquals(fileData, out.getOutput());
+        }
+
+        Mockito.verify(servletService, Mockito.times(1))
+                .getStaticResource("/some/file.js");
+        Mockito.verify(response, Mockito.times(2))
+                .setContentType("application/javascript");
+        Assert.assertEquals(fileData.length, responseContentLength.get());
+        Assert.assertNotNull(headers.get("ETag"));
+        Assert.assertTrue(headers.get("ETag").startsWith("\""));
+    }
+
+    @Test
+    public void resourceCacheEnabled_matchingIfNoneMatch_notModified()
+            throws IOException {
+        fileServer = createCachingFileServer();
+        setupRequestURI("", "/some", "/file.js");
+        byte[] fileData = "function() {eval('foo');};"
+                .getBytes(StandardCharsets.UTF_8);
+        Mockito.when(servletService.getStaticResource("/some/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/some/file.js",
+                        fileData));
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        fileServer.serveStaticResource(request, response);
+        String eTag = headers.get("ETag");
+
+        out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn("\"other\", " + eTag);
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals(0, out.getOutput().length);
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED,
+                responseCode.get());
+    }
+
+    @Test
+    public void resourceCacheEnabled_gzipAccepted_gzippedVariantServed()
+            throws IOException {
+        fileServer = createCachingFileServer();
+        setupRequestURI("", "/some", "/file.js");
+        byte[] fileData = "function() {eval('foo');};"
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] gzippedData = "gzipped".getBytes(StandardCharsets.UTF_8);
+        Mockito.when(servletService.getStaticResource("/some/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/some/file.js",
+                        fileData));
+        Mockito.when(servletContext.getResource("/some/file.js.gz"))
+                .thenReturn(createFileURLWithDataAndLength(
+                        "/some/file.js.gz", gzippedData));
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        fileServer.serveStaticResource(request, response);
+        Assert.assertArrayEquals(gzippedData, out.getOutput());
+        Assert.assertEquals("gzip", headers.get("Content-Encoding"));
+        String gzippedETag = headers.get("ETag");
+
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn(null);
+        out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        fileServer.serveStaticResource(request, response);
+        Assert.assertArrayEquals(fileData, out.getOutput());
+        Assert.assertNotEquals(gzippedETag, headers.get("ETag"));
+    }
+
+    @Test
+    public void matchesETag() {
+        Assert.assertTrue(StaticFileServer.matchesETag("\"a\"", "\"a\""));
+        Assert.assertTrue(
+                StaticFileServer.matchesETag("\"b\", W/\"a\"", "\"a\""));
+        Assert.assertTrue(StaticFileServer.matchesETag("*", "\"a\""));
+        Assert.assertFalse(StaticFileServer.matchesETag("\"b\"", "\"a\""));
+        Assert.assertFalse(StaticFileServer.matchesETag("a", "\"a\""));
+    }
+
+    private OverrideableStaticFileServer createCachingFileServer() {
+        Mockito.when(configuration.getStaticResourceCacheSize())
+                .thenReturn(1000);
+        return new OverrideableStaticFileServer(servletService);
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.commons.io.IOUtils;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vaadin.flow.server.StaticResourceCache.CachedResource;
+
+public class StaticResourceCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private StaticResourceCache cache;
+
+    @After
+    public void tearDown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    public void load_resourceCached() throws IOException {
+        cache = new StaticResourceCache(100, false);
+        URL url = createFile("file.js", "foo");
+
+        CachedResource resource = cache.load("/file.js", url, null,
+                "application/javascript");
+
+        Assert.assertSame(resource, cache.get("/file.js"));
+        Assert.assertArrayEquals("foo".getBytes(StandardCharsets.UTF_8),
+                resource.getData());
+        Assert.assertNull(resource.getGzippedData());
+        Assert.assertEquals("application/javascript",
+                resource.getContentType());
+        Assert.assertEquals(3, cache.getSize());
+    }
+
+    @Test
+    public void load_sameContents_sameETag() throws IOException {
+        cache = new StaticResourceCache(100, false);
+
+        String eTag = cache.load("/a.js", createFile("a.js", "foo"), null, null)
+                .getETag();
+
+        Assert.assertEquals(eTag, cache
+                .load("/b.js", createFile("b.js", "foo"), null, null)
+                .getETag());
+        Assert.assertNotEquals(eTag, cache
+                .load("/c.js", createFile("c.js", "bar"), null, null)
+                .getETag());
+    }
+
+    @Test
+    public void load_resourceLargerThanCache_notCached() throws IOException {
+        cache = new StaticResourceCache(5, false);
+
+        Assert.assertNull(cache.load("/file.js",
+                createFile("file.js", "foobar"), null, null));
+        Assert.assertNull(cache.get("/file.js"));
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void load_cacheFull_leastRecentlyUsedEvicted() throws IOException {
+        cache = new StaticResourceCache(10, false);
+        cache.load("/a.js", createFile("a.js", "aaaa"), null, null);
+        cache.load("/b.js", createFile("b.js", "bbbb"), null, null);
+        cache.get("/a.js");
+
+        cache.load("/c.js", createFile("c.js", "cccc"), null, null);
+
+        Assert.assertNotNull(cache.get("/a.js"));
+        Assert.assertNull(cache.get("/b.js"));
+        Assert.assertNotNull(cache.get("/c.js"));
+        Assert.assertEquals(8, cache.getSize());
+        Assert.assertEquals(2, cache.getResourceCount());
+    }
+
+    @Test
+    public void invalidate_resourceRemoved() throws IOException {
+        cache = new StaticResourceCache(100, false);
+        cache.load("/file.js", createFile("file.js", "foo"), null, null);
+
+        cache.invalidate("/file.js");
+
+        Assert.assertNull(cache.get("/file.js"));
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void watchFiles_fileModified_resourceEvicted()
+            throws IOException, InterruptedException {
+        cache = new StaticResourceCache(100, true);
+        URL url = createFile("file.js", "foo");
+        cache.load("/file.js", url, null, null);
+        Assert.assertNotNull(cache.get("/file.js"));
+
+        Files.write(new File(url.getFile()).toPath(),
+                "bar".getBytes(StandardCharsets.UTF_8));
+
+        // File system events are delivered asynchronously
+        for (int i = 0; i < 200 && cache.get("/file.js") != null; i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertNull(cache.get("/file.js"));
+    }
+
+    @Test
+    public void watchFiles_fileModifiedWhileLoading_notCached()
+            throws IOException {
+        cache = new StaticResourceCache(100, true);
+        URL fileUrl = createFile("file.js", "foo");
+        Path file = Paths.get(fileUrl.getFile()).toAbsolutePath();
+        // Modifies the file after the old contents have been read but before
+        // they are cached
+        URL url = new URL(fileUrl, "", new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL u) throws IOException {
+                URLConnection connection = fileUrl.openConnection();
+                return new URLConnection(u) {
+                    @Override
+                    public void connect() throws IOException {
+                        connection.connect();
+                    }
+
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        byte[] data;
+                        try (InputStream in = connection.getInputStream()) {
+                            data = IOUtils.toByteArray(in);
+                        }
+                        Files.write(file,
+                                "bar".getBytes(StandardCharsets.UTF_8));
+                        cache.invalidate(file);
+                        return new ByteArrayInputStream(data);
+                    }
+                };
+            }
+        });
+
+        cache.load("/file.js", url, null, null);
+
+        Assert.assertNull(cache.get("/file.js"));
+        Assert.assertEquals(0, cache.getTrackedInvalidationCount());
+
+        CachedResource resource = cache.load("/file.js", fileUrl, null, null);
+        Assert.assertArrayEquals("bar".getBytes(StandardCharsets.UTF_8),
+                resource.getData());
+    }
+
+    @Test
+    public void invalidate_notLoading_notTracked() throws IOException {
+        cache = new StaticResourceCache(100, true);
+        URL url = createFile("file.js", "foo");
+        cache.load("/file.js", url, null, null);
+
+        for (int i = 0; i < 10; i++) {
+            cache.invalidate("/file" + i + ".js");
+        }
+        cache.invalidate("/file.js");
+
+        Assert.assertNull(cache.get("/file.js"));
+        Assert.assertEquals(0, cache.getTrackedInvalidationCount());
+    }
+
+    @Test
+    public void serialize_deserializedCacheEmptyAndUsable() throws Exception {
+        cache = new StaticResourceCache(100, true);
+        URL url = createFile("file.js", "foo");
+        cache.load("/file.js", url, null, null);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cache);
+        }
+        cache.shutdown();
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            cache = (StaticResourceCache) in.readObject();
+        }
+
+        Assert.assertEquals(0, cache.getResourceCount());
+        Assert.assertEquals(0, cache.getSize());
+        cache.load("/file.js", url, null, null);
+        Assert.assertNotNull(cache.get("/file.js"));
+    }
+
+    private URL createFile(String name, String contents) throws IOException {
+        File file = temporaryFolder.newFile(name);
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file.toURI().toURL();
+    }
+}
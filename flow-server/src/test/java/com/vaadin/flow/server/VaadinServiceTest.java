@@ -21,6 +21,8 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -227,6 +229,28 @@ public class VaadinServiceTest {
         Assert.assertTrue(listener2Run.get());
     }
 
+    @Test
+    public void destroy_pushFlushSchedulerShutDown() {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init();
+        ScheduledExecutorService scheduler = service.getPushFlushScheduler();
+        Assert.assertSame(scheduler, service.getPushFlushScheduler());
+
+        service.destroy();
+
+        Assert.assertTrue(scheduler.isShutdown());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void destroy_noPushFlushSchedulerCreatedAfterwards() {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init();
+
+        service.destroy();
+
+        service.getPushFlushScheduler();
+    }
+
     private static VaadinService createService() {
         ServletConfig servletConfig = new MockServletConfig();
         VaadinServlet servlet = new VaadinServlet();
@@ -17,17 +17,30 @@ package com.vaadin.flow.server.communication;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResource.TRANSPORT;
+import org.atmosphere.cpr.Broadcaster;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
+import com.vaadin.flow.server.communication.AtmospherePushConnection.FragmentedMessage;
 import com.vaadin.flow.server.communication.AtmospherePushConnection.State;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
 
 /**
  * @author Vaadin Ltd
@@ -55,4 +68,230 @@ public class AtmospherePushConnectionTest {
 
         Assert.assertEquals(State.DISCONNECTED, connection.getState());
     }
+
+    @Test
+    public void push_outboxFull_changesMergedIntoLaterMessage()
+            throws Exception {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.PUSH_OUTBOX_SIZE, "1");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        service.init();
+        MockVaadinSession session = new MockVaadinSession(service);
+        session.lock();
+        try {
+            session.setConfiguration(service.getDeploymentConfiguration());
+            UI ui = new UI();
+            ui.getInternals().setSession(session);
+
+            CompletableFuture<Object> firstMessage = new CompletableFuture<>();
+            Broadcaster broadcaster = Mockito.mock(Broadcaster.class);
+            AtmosphereResource resource = Mockito
+                    .mock(AtmosphereResource.class);
+            Mockito.when(resource.getBroadcaster()).thenReturn(broadcaster);
+            Mockito.when(broadcaster.broadcast(Mockito.anyString(),
+                    Mockito.eq(resource))).thenReturn((Future) firstMessage,
+                            (Future) new CompletableFuture<>());
+
+            AtmospherePushConnection connection = new AtmospherePushConnection(
+                    ui);
+            connection.connect(resource);
+
+            connection.push();
+            Assert.assertEquals(1, connection.getOutboxDepth());
+
+            // The client has not received the first message yet
+            ui.getElement().setProperty("foo", "bar");
+            connection.push();
+            ui.getElement().setProperty("foo", "baz");
+            connection.push();
+
+            Mockito.verify(broadcaster, Mockito.times(1))
+                    .broadcast(Mockito.anyString(), Mockito.eq(resource));
+            Assert.assertEquals(2, connection.getMergedFlushCount());
+            Assert.assertTrue(connection.isFlushPending());
+
+            firstMessage.complete(null);
+            connection.push();
+
+            Mockito.verify(broadcaster, Mockito.times(2))
+                    .broadcast(Mockito.anyString(), Mockito.eq(resource));
+            Assert.assertEquals(1, connection.getOutboxDepth());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void push_longPollingBatchingWindow_changesSentAsOneMessage()
+            throws Exception {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.LONG_POLLING_BATCHING_WINDOW, "10");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        service.init();
+        MockVaadinSession session = new MockVaadinSession(service);
+        session.lock();
+        UI ui = new UI();
+        AtmospherePushConnection connection = new AtmospherePushConnection(
+                ui);
+        Broadcaster broadcaster = Mockito.mock(Broadcaster.class);
+        try {
+            session.setConfiguration(service.getDeploymentConfiguration());
+            ui.getInternals().setSession(session);
+
+            AtmosphereResource resource = Mockito
+                    .mock(AtmosphereResource.class);
+            Mockito.when(resource.transport())
+                    .thenReturn(TRANSPORT.LONG_POLLING);
+            Mockito.when(resource.getBroadcaster()).thenReturn(broadcaster);
+            Mockito.when(broadcaster.broadcast(Mockito.anyString(),
+                    Mockito.eq(resource)))
+                    .thenReturn((Future) new CompletableFuture<>());
+            connection.connect(resource);
+
+            ui.getElement().setProperty("foo", "bar");
+            connection.push();
+            ui.getElement().setProperty("foo", "baz");
+            connection.push();
+
+            Mockito.verify(broadcaster, Mockito.never())
+                    .broadcast(Mockito.anyString(), Mockito.eq(resource));
+            Assert.assertTrue(connection.isFlushPending());
+            Assert.assertEquals(1, connection.getMergedFlushCount());
+
+            Thread.sleep(100);
+        } finally {
+            // Runs the flush scheduled through session.access
+            session.unlock();
+        }
+
+        session.lock();
+        try {
+            Mockito.verify(broadcaster, Mockito.times(1)).broadcast(
+                    Mockito.anyString(),
+                    Mockito.any(AtmosphereResource.class));
+            Assert.assertFalse(connection.isFlushPending());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void connect_reconnect_counted() {
+        UI ui = EasyMock.createNiceMock(UI.class);
+        EasyMock.replay(ui);
+        AtmospherePushConnection connection = new AtmospherePushConnection(
+                ui);
+
+        connection.connect(Mockito.mock(AtmosphereResource.class));
+        Assert.assertEquals(0, connection.getReconnectCount());
+        Assert.assertEquals(0, connection.getReconnectsPerMinute());
+
+        connection.connectionLost();
+        connection.connect(Mockito.mock(AtmosphereResource.class));
+        connection.connectionLost();
+        connection.connect(Mockito.mock(AtmosphereResource.class));
+
+        Assert.assertEquals(2, connection.getReconnectCount());
+        Assert.assertEquals(2, connection.getReconnectsPerMinute());
+    }
+
+    @Test
+    public void push_outboxNotLimited_allMessagesSent() throws Exception {
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init();
+        MockVaadinSession session = new MockVaadinSession(service);
+        session.lock();
+        try {
+            session.setConfiguration(service.getDeploymentConfiguration());
+            UI ui = new UI();
+            ui.getInternals().setSession(session);
+
+            Broadcaster broadcaster = Mockito.mock(Broadcaster.class);
+            AtmosphereResource resource = Mockito
+                    .mock(AtmosphereResource.class);
+            Mockito.when(resource.getBroadcaster()).thenReturn(broadcaster);
+            Mockito.when(broadcaster.broadcast(Mockito.anyString(),
+                    Mockito.eq(resource)))
+                    .thenReturn((Future) new CompletableFuture<>());
+
+            AtmospherePushConnection connection = new AtmospherePushConnection(
+                    ui);
+            connection.connect(resource);
+
+            for (int i = 0; i < 5; i++) {
+                ui.getElement().setProperty("foo", i);
+                connection.push();
+            }
+
+            Mockito.verify(broadcaster, Mockito.times(5))
+                    .broadcast(Mockito.anyString(), Mockito.eq(resource));
+            Assert.assertEquals(0, connection.getOutboxDepth());
+            Assert.assertEquals(0, connection.getMergedFlushCount());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void fragmentedMessage_multipleFragments_readBackInOrder()
+            throws IOException {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            expected.append(i % 10);
+        }
+        String message = expected.toString();
+
+        Reader firstFragment = new StringReader(
+                message.length() + "|" + message.substring(0, 3000));
+        FragmentedMessage fragmentedMessage = new FragmentedMessage(
+                firstFragment);
+        Assert.assertFalse(fragmentedMessage.append(firstFragment));
+        Assert.assertFalse(fragmentedMessage
+                .append(new StringReader(message.substring(3000, 7000))));
+        Assert.assertTrue(fragmentedMessage
+                .append(new StringReader(message.substring(7000))));
+
+        Assert.assertEquals(message, read(fragmentedMessage.getReader()));
+    }
+
+    @Test
+    public void fragmentedMessage_emptyMessage_complete() throws IOException {
+        FragmentedMessage fragmentedMessage = new FragmentedMessage(
+                new StringReader("0|"));
+        Assert.assertTrue(fragmentedMessage.append(new StringReader("")));
+        Assert.assertEquals("", read(fragmentedMessage.getReader()));
+    }
+
+    @Test(expected = IOException.class)
+    public void fragmentedMessage_longerThanMaximum_rejected()
+            throws IOException {
+        new FragmentedMessage(new StringReader("1001|foo"), 1000);
+    }
+
+    @Test(expected = IOException.class)
+    public void fragmentedMessage_invalidLength_rejected() throws IOException {
+        new FragmentedMessage(new StringReader("1x|foo"));
+    }
+
+    @Test(expected = IOException.class)
+    public void fragmentedMessage_moreDataThanLength_rejected()
+            throws IOException {
+        FragmentedMessage fragmentedMessage = new FragmentedMessage(
+                new StringReader("3|"));
+        fragmentedMessage.append(new StringReader("foobar"));
+    }
+
+    private static String read(Reader reader) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[1000];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            builder.append(buffer, 0, read);
+        }
+        return builder.toString();
+    }
 }
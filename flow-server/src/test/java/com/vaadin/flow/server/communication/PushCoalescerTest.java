@@ -0,0 +1,169 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+
+public class PushCoalescerTest {
+
+    private static final int WINDOW = 100;
+
+    private static class PushCountingUI extends UI {
+        private int pushCount;
+
+        @Override
+        public void push() {
+            pushCount++;
+            // Pretend the changes have been sent
+            getInternals().getStateTree().collectChanges(change -> {
+            });
+        }
+    }
+
+    private MockVaadinServletService service;
+    private MockVaadinSession session;
+    private PushCountingUI ui;
+    private PushCoalescer coalescer;
+    private ScheduledExecutorService scheduler;
+    private long now;
+
+    @Before
+    public void setup() {
+        service = new MockVaadinServletService();
+        service.init();
+        session = new MockVaadinSession(service);
+        session.lock();
+
+        ui = new PushCountingUI();
+        ui.getInternals().setSession(session);
+
+        scheduler = Mockito.mock(ScheduledExecutorService.class);
+        now = TimeUnit.SECONDS.toNanos(1);
+        coalescer = new PushCoalescer(WINDOW, () -> now,
+                ignore -> scheduler);
+    }
+
+    @After
+    public void tearDown() {
+        session.unlock();
+    }
+
+    @Test
+    public void push_notDirty_notPushed() {
+        ui.getInternals().getStateTree().collectChanges(change -> {
+        });
+
+        coalescer.push(ui);
+
+        Assert.assertEquals(0, ui.pushCount);
+        Assert.assertEquals(0, coalescer.getPushCount());
+    }
+
+    @Test
+    public void push_firstChange_pushedImmediately() {
+        makeDirty();
+
+        coalescer.push(ui);
+
+        Assert.assertEquals(1, ui.pushCount);
+        Assert.assertEquals(1, coalescer.getPushCount());
+        Assert.assertFalse(coalescer.isDeferredPushScheduled(ui));
+    }
+
+    @Test
+    public void push_changesWithinWindow_coalescedIntoDeferredPush() {
+        makeDirty();
+        coalescer.push(ui);
+
+        for (int i = 0; i < 10; i++) {
+            now += TimeUnit.MILLISECONDS.toNanos(5);
+            makeDirty();
+            coalescer.push(ui);
+        }
+
+        Assert.assertEquals(1, ui.pushCount);
+        Assert.assertEquals(10, coalescer.getCoalescedCount());
+        Assert.assertEquals(1, coalescer.getDeferredPushCount());
+        Assert.assertTrue(coalescer.isDeferredPushScheduled(ui));
+
+        // Scheduled for when the window of the first push has passed
+        ArgumentCaptor<Runnable> deferredPush = ArgumentCaptor
+                .forClass(Runnable.class);
+        Mockito.verify(scheduler).schedule(deferredPush.capture(),
+                Mockito.eq(TimeUnit.MILLISECONDS.toNanos(WINDOW - 5)),
+                Mockito.eq(TimeUnit.NANOSECONDS));
+
+        now += TimeUnit.MILLISECONDS.toNanos(WINDOW);
+        deferredPush.getValue().run();
+
+        // The deferred push is enqueued as an access task
+        Assert.assertEquals(1, session.getPendingAccessQueue().size());
+        service.runPendingAccessTasks(session);
+        Assert.assertFalse(coalescer.isDeferredPushScheduled(ui));
+
+        coalescer.push(ui);
+        Assert.assertEquals(2, ui.pushCount);
+    }
+
+    @Test
+    public void push_windowPassed_pushedImmediately() {
+        makeDirty();
+        coalescer.push(ui);
+
+        now += TimeUnit.MILLISECONDS.toNanos(WINDOW);
+        makeDirty();
+        coalescer.push(ui);
+
+        Assert.assertEquals(2, ui.pushCount);
+        Assert.assertEquals(0, coalescer.getCoalescedCount());
+        Mockito.verifyZeroInteractions(scheduler);
+    }
+
+    @Test
+    public void push_clockAtZero_windowStillApplied() {
+        now = 0;
+        makeDirty();
+        coalescer.push(ui);
+
+        now += TimeUnit.MILLISECONDS.toNanos(5);
+        makeDirty();
+        coalescer.push(ui);
+
+        Assert.assertEquals(1, ui.pushCount);
+        Assert.assertEquals(1, coalescer.getCoalescedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create_nonPositiveWindow_throws() {
+        new PushCoalescer(0);
+    }
+
+    private void makeDirty() {
+        ui.getElement().setProperty("value", Math.random());
+    }
+}
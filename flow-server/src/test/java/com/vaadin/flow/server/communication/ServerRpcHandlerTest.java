@@ -0,0 +1,204 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.ApplicationConstants;
+
+public class ServerRpcHandlerTest {
+
+    private ServerRpcHandler handler = new ServerRpcHandler();
+
+    @Test
+    public void getMessage_knownContentLength_wholeMessageRead()
+            throws IOException {
+        String message = "{\"csrfToken\":\"foo\",\"rpc\":[]}";
+
+        Assert.assertEquals(message, handler.getMessage(
+                new StringReader(message), message.length()));
+    }
+
+    @Test
+    public void getMessage_unknownContentLength_wholeMessageRead()
+            throws IOException {
+        String message = createMessage(100 * 1024);
+
+        Assert.assertEquals(message,
+                handler.getMessage(new StringReader(message), -1));
+    }
+
+    @Test
+    public void getMessage_contentLengthTooSmall_wholeMessageRead()
+            throws IOException {
+        String message = createMessage(20 * 1024);
+
+        Assert.assertEquals(message,
+                handler.getMessage(new StringReader(message), 10));
+    }
+
+    @Test
+    public void getMessage_consecutiveMessages_notMixed() throws IOException {
+        String longMessage = createMessage(10 * 1024);
+        handler.getMessage(new StringReader(longMessage), -1);
+
+        Assert.assertEquals("[]",
+                handler.getMessage(new StringReader("[]"), 2));
+    }
+
+    @Test
+    public void handleRpc_getMessageOverridden_overrideUsed()
+            throws Exception {
+        List<String> readMessages = new ArrayList<>();
+        ServerRpcHandler overridingHandler = new ServerRpcHandler() {
+            @Override
+            protected String getMessage(Reader reader) throws IOException {
+                String message = super.getMessage(reader);
+                readMessages.add(message);
+                // Empty messages are ignored
+                return "";
+            }
+        };
+        handleRpc(overridingHandler, createUI(), "test");
+
+        Assert.assertEquals(Collections.singletonList("test"), readMessages);
+    }
+
+    @Test
+    public void handleRpc_sameMessageResent_confirmedDuplicate()
+            throws Exception {
+        UI ui = createUI();
+        String message = createRpcMessage(ui, 0, "[]");
+        handleRpc(handler, ui, message);
+        Assert.assertEquals(0,
+                ui.getInternals().getLastProcessedClientToServerId());
+
+        try {
+            handleRpc(handler, ui, new String(message));
+            Assert.fail("Resent message should require a resync");
+        } catch (UnsupportedOperationException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith(
+                    "Confirmed duplicate message from the client."));
+        }
+        Assert.assertEquals(0,
+                ui.getInternals().getLastProcessedClientToServerId());
+    }
+
+    @Test
+    public void handleRpc_differentMessageWithSameId_notDuplicate()
+            throws Exception {
+        UI ui = createUI();
+        handleRpc(handler, ui, createRpcMessage(ui, 0, "[]"));
+
+        try {
+            handleRpc(handler, ui, createRpcMessage(ui, 0, "[ ]"));
+            Assert.fail("Unexpected message id should require a resync");
+        } catch (UnsupportedOperationException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage()
+                    .startsWith("Unexpected message id from the client."));
+        }
+    }
+
+    @Test
+    public void calculateMessageHash_sameMessage_sameHash() {
+        String message = "{\"clientId\":1,\"rpc\":[]}";
+
+        Assert.assertArrayEquals(
+                ServerRpcHandler.calculateMessageHash(message),
+                ServerRpcHandler.calculateMessageHash(new String(message)));
+    }
+
+    @Test
+    public void calculateMessageHash_differentMessage_differentHash() {
+        byte[] hash = ServerRpcHandler
+                .calculateMessageHash("{\"clientId\":1,\"rpc\":[]}");
+
+        Assert.assertEquals(8, hash.length);
+        Assert.assertFalse(Arrays.equals(hash, ServerRpcHandler
+                .calculateMessageHash("{\"clientId\":2,\"rpc\":[]}")));
+        Assert.assertFalse(Arrays.equals(hash, ServerRpcHandler
+                .calculateMessageHash("{\"clientId\":1,\"rpc\":[] }")));
+    }
+
+    private static UI createUI() {
+        UI ui = new UI();
+        MockVaadinServletService service = new MockVaadinServletService();
+        service.init();
+        MockVaadinSession session = new MockVaadinSession(service);
+        session.lock();
+        try {
+            session.setConfiguration(service.getDeploymentConfiguration());
+        } finally {
+            session.unlock();
+        }
+        ui.getInternals().setSession(session);
+        return ui;
+    }
+
+    private static String createRpcMessage(UI ui, int clientToServerId,
+            String invocations) {
+        VaadinSession session = ui.getSession();
+        String csrfToken;
+        session.lock();
+        try {
+            csrfToken = session.getCsrfToken();
+        } finally {
+            session.unlock();
+        }
+        return "{\"" + ApplicationConstants.CSRF_TOKEN + "\":\"" + csrfToken
+                + "\",\"" + ApplicationConstants.RPC_INVOCATIONS + "\":"
+                + invocations + ",\"" + ApplicationConstants.SERVER_SYNC_ID
+                + "\":0,\"" + ApplicationConstants.CLIENT_TO_SERVER_ID + "\":"
+                + clientToServerId + "}";
+    }
+
+    private static void handleRpc(ServerRpcHandler handler, UI ui,
+            String message) throws Exception {
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getContentLength()).thenReturn(message.length());
+        VaadinSession session = ui.getSession();
+        Mockito.when(request.getService()).thenReturn(session.getService());
+        session.lock();
+        try {
+            handler.handleRpc(ui, new StringReader(message), request);
+        } finally {
+            session.unlock();
+        }
+    }
+
+    private static String createMessage(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        return builder.toString();
+    }
+}
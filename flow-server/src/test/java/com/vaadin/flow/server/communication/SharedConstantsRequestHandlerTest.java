@@ -0,0 +1,103 @@
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.internal.SharedConstantPool;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+import elemental.json.Json;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SharedConstantsRequestHandlerTest {
+
+    private SharedConstantsRequestHandler handler = new SharedConstantsRequestHandler();
+
+    private SharedConstantPool pool = new SharedConstantPool();
+    private VaadinSession session = mock(VaadinSession.class);
+    private VaadinRequest request = mock(VaadinRequest.class);
+    private VaadinResponse response = mock(VaadinResponse.class);
+    private ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Before
+    public void setup() throws IOException {
+        VaadinService service = mock(VaadinService.class);
+        when(session.getService()).thenReturn(service);
+        when(service.getSharedConstantPool()).thenReturn(pool);
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                output.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+    }
+
+    @Test
+    public void otherPath_notHandled() throws IOException {
+        when(request.getPathInfo()).thenReturn("/VAADIN/dynamic/foo");
+        Assert.assertFalse(
+                handler.handleRequest(session, request, response));
+
+        when(request.getPathInfo()).thenReturn(null);
+        Assert.assertFalse(
+                handler.handleRequest(session, request, response));
+    }
+
+    @Test
+    public void snapshotPath_scriptServedAndCached() throws IOException {
+        pool.record("id", Json.create("foo"));
+        pool.record("id", Json.create("foo"));
+        pool.freeze();
+
+        when(request.getPathInfo()).thenReturn("/"
+                + SharedConstantsRequestHandler
+                        .getResourcePath(pool.getSnapshot()));
+
+        Assert.assertTrue(handler.handleRequest(session, request, response));
+
+        Assert.assertArrayEquals(pool.getSnapshot().getScript(),
+                output.toByteArray());
+        Assert.assertTrue(new String(output.toByteArray(),
+                StandardCharsets.UTF_8).contains("\"id\":\"foo\""));
+        ArgumentCaptor<Long> cacheTime = ArgumentCaptor.forClass(Long.class);
+        verify(response).setCacheTime(cacheTime.capture());
+        Assert.assertTrue(cacheTime.getValue().longValue() > 0);
+    }
+
+    @Test
+    public void unknownSnapshot_notFound() throws IOException {
+        when(request.getPathInfo())
+                .thenReturn("/VAADIN/constants/0123456789abcdef.js");
+
+        Assert.assertTrue(handler.handleRequest(session, request, response));
+
+        verify(response).sendError(Mockito.eq(HttpServletResponse.SC_NOT_FOUND),
+                Mockito.anyString());
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.communication.UidlRequestHandler.CompressingOutputStream;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+import elemental.json.JsonException;
+
+public class UidlRequestHandlerTest {
+
+    private VaadinResponse response;
+    private ByteArrayOutputStream responseBody;
+
+    @Before
+    public void setup() throws IOException {
+        response = Mockito.mock(VaadinResponse.class);
+        responseBody = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(responseBody);
+    }
+
+    @Test
+    public void compressingOutputStream_belowThreshold_writtenAsIs()
+            throws IOException {
+        CompressingOutputStream stream = new CompressingOutputStream(response,
+                100);
+        byte[] data = createData(100);
+        stream.write(data, 0, 50);
+        stream.write(data, 50, 50);
+        stream.finish();
+
+        Mockito.verify(response, Mockito.never())
+                .setHeader(Mockito.eq("Content-Encoding"), Mockito.anyString());
+        Mockito.verify(response).setContentLength(100);
+        Assert.assertArrayEquals(data, responseBody.toByteArray());
+    }
+
+    @Test
+    public void compressingOutputStream_aboveThreshold_gzipped()
+            throws IOException {
+        CompressingOutputStream stream = new CompressingOutputStream(response,
+                100);
+        byte[] data = createData(10000);
+        stream.write(data, 0, 60);
+        stream.write(data[60]);
+        stream.write(data, 61, data.length - 61);
+        stream.finish();
+
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+        Mockito.verify(response, Mockito.never())
+                .setContentLength(Mockito.anyInt());
+        Assert.assertTrue(responseBody.size() < data.length);
+        Assert.assertArrayEquals(data, gunzip(responseBody.toByteArray()));
+    }
+
+    @Test
+    public void compressingOutputStream_singleBytesAboveThreshold_gzipped()
+            throws IOException {
+        CompressingOutputStream stream = new CompressingOutputStream(response,
+                100);
+        byte[] data = createData(1000);
+        for (byte b : data) {
+            stream.write(b);
+        }
+        stream.finish();
+
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+        Assert.assertArrayEquals(data, gunzip(responseBody.toByteArray()));
+    }
+
+    @Test
+    public void acceptsGzip_qualityValuesRespected() {
+        Assert.assertFalse(UidlRequestHandler.acceptsGzip(null));
+        Assert.assertFalse(UidlRequestHandler.acceptsGzip(""));
+        Assert.assertFalse(UidlRequestHandler.acceptsGzip("identity"));
+        Assert.assertFalse(UidlRequestHandler.acceptsGzip("x-gzip2"));
+
+        Assert.assertTrue(UidlRequestHandler.acceptsGzip("gzip"));
+        Assert.assertTrue(UidlRequestHandler.acceptsGzip("deflate, GZIP"));
+        Assert.assertTrue(
+                UidlRequestHandler.acceptsGzip("gzip;q=0.5, deflate;q=1"));
+        Assert.assertTrue(UidlRequestHandler.acceptsGzip("*"));
+
+        Assert.assertFalse(UidlRequestHandler.acceptsGzip("gzip;q=0"));
+        Assert.assertFalse(UidlRequestHandler.acceptsGzip("gzip; q=0.0"));
+        Assert.assertFalse(UidlRequestHandler.acceptsGzip("gzip;q=0, *"));
+        Assert.assertFalse(UidlRequestHandler.acceptsGzip("*;q=0"));
+        Assert.assertFalse(UidlRequestHandler.acceptsGzip("gzip;q=foo"));
+    }
+
+    @Test
+    public void synchronizedHandleRequest_compressionEnabled_varyHeaderSet()
+            throws IOException {
+        UI ui = new UI();
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.UIDL_COMPRESSION_THRESHOLD, "1");
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration) {
+            @Override
+            public UI findUI(VaadinRequest request) {
+                return ui;
+            }
+        };
+        service.init();
+        MockVaadinSession session = new MockVaadinSession(service);
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getHeader("Accept-Encoding"))
+                .thenReturn("gzip, deflate");
+        session.lock();
+        try {
+            session.setConfiguration(service.getDeploymentConfiguration());
+            ui.getInternals().setSession(session);
+
+            UidlRequestHandler handler = new UidlRequestHandler() {
+                @Override
+                protected ServerRpcHandler createRpcHandler() {
+                    return Mockito.mock(ServerRpcHandler.class);
+                }
+            };
+            handler.synchronizedHandleRequest(session, request, response);
+        } finally {
+            session.unlock();
+        }
+
+        Mockito.verify(response).setHeader("Vary", "Accept-Encoding");
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+        String written = new String(gunzip(responseBody.toByteArray()),
+                StandardCharsets.UTF_8);
+        Assert.assertTrue(written.startsWith("for(;;);["));
+    }
+
+    @Test
+    public void synchronizedHandleRequest_writingFails_refreshWritten()
+            throws IOException {
+        UI ui = new UI();
+        MockVaadinServletService service = new MockVaadinServletService() {
+            @Override
+            public UI findUI(VaadinRequest request) {
+                return ui;
+            }
+        };
+        service.init();
+        MockVaadinSession session = new MockVaadinSession(service);
+        session.lock();
+        try {
+            session.setConfiguration(service.getDeploymentConfiguration());
+            ui.getInternals().setSession(session);
+            ui.getInternals().getStateTree().beforeClientResponse(
+                    ui.getElement().getNode(), context -> {
+                        throw new JsonException("Expected");
+                    });
+
+            UidlRequestHandler handler = new UidlRequestHandler() {
+                @Override
+                protected ServerRpcHandler createRpcHandler() {
+                    return Mockito.mock(ServerRpcHandler.class);
+                }
+            };
+            handler.synchronizedHandleRequest(session,
+                    Mockito.mock(VaadinRequest.class), response);
+        } finally {
+            session.unlock();
+        }
+
+        String written = new String(responseBody.toByteArray(),
+                StandardCharsets.UTF_8);
+        Assert.assertEquals(VaadinService.createCriticalNotificationJSON(null,
+                null, null, null), written);
+    }
+
+    private static byte[] createData(int length) {
+        byte[] data = new byte[length];
+        byte[] pattern = "{\"node\":1,\"type\":\"put\",\"key\":\"value\"}"
+                .getBytes();
+        for (int i = 0; i < length; i++) {
+            data[i] = pattern[i % pattern.length];
+        }
+        return data;
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+}
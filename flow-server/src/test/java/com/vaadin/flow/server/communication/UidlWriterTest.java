@@ -16,6 +16,7 @@
 package com.vaadin.flow.server.communication;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -38,16 +39,19 @@ import com.vaadin.flow.component.dependency.HtmlImport;
 import com.vaadin.flow.component.dependency.JavaScript;
 import com.vaadin.flow.component.dependency.StyleSheet;
 import com.vaadin.flow.component.internal.UIInternals.JavaScriptInvocation;
+import com.vaadin.flow.dom.DomListenerRegistration;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.dom.ElementFactory;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.router.ParentLayout;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouterLayout;
+import com.vaadin.flow.server.Constants;
 import com.vaadin.flow.server.MockServletServiceSessionSetup;
 import com.vaadin.flow.server.VaadinServletRequest;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.JsonConstants;
 import com.vaadin.flow.shared.ui.Dependency;
 import com.vaadin.flow.shared.ui.LoadMode;
 
@@ -63,6 +67,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -420,6 +425,143 @@ public class UidlWriterTest {
                 containsInAnyOrder(Dependency.Type.values()));
     }
 
+    @Test
+    public void writeUidl_sameAsCreateUidl() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        ui.add(new ActualComponent());
+        ui.getElement().addEventListener("click", event -> {
+        });
+        JsonObject expected = new UidlWriter().createUidl(ui, false);
+        mocks.cleanup();
+
+        UI otherUi = initializeUIForDependenciesTest(new TestUI());
+        otherUi.add(new ActualComponent());
+        otherUi.getElement().addEventListener("click", event -> {
+        });
+        StringWriter writer = new StringWriter();
+        new UidlWriter().writeUidl(otherUi, false, writer);
+
+        JsonObject written = Json.parse(writer.toString());
+        assertTrue(written.hasKey("changes"));
+        assertTrue(written.hasKey("constants"));
+        assertTrue(JsonUtils.jsonEquals(expected, written));
+    }
+
+    @Test
+    public void writeUidl_beforeClientResponseThrows_nothingWritten()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        ui.add(new ActualComponent());
+        ui.getInternals().getStateTree().beforeClientResponse(
+                ui.getElement().getNode(), context -> {
+                    throw new IllegalStateException("Expected");
+                });
+
+        StringWriter writer = new StringWriter();
+        try {
+            new UidlWriter().writeUidl(ui, false, writer);
+            fail("Exception should be thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("Expected", e.getMessage());
+        }
+
+        assertEquals("", writer.toString());
+    }
+
+    @Test
+    public void writeUidl_manyChanges_writtenOneAtATime() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        for (int i = 0; i < 100; i++) {
+            Element element = ElementFactory.createDiv();
+            element.setText("Some text for element number " + i);
+            ui.getElement().appendChild(element);
+        }
+
+        List<Integer> writeLengths = new ArrayList<>();
+        StringWriter writer = new StringWriter() {
+            @Override
+            public void write(String str) {
+                writeLengths.add(str.length());
+                super.write(str);
+            }
+        };
+        new UidlWriter().writeUidl(ui, false, writer);
+
+        int total = writer.toString().length();
+        int largest = writeLengths.stream().mapToInt(Integer::intValue).max()
+                .getAsInt();
+        assertTrue("Largest write was " + largest + " of " + total,
+                largest < total / 10);
+        assertTrue(Json.parse(writer.toString()).hasKey("changes"));
+    }
+
+    @Test
+    public void writeUidl_noChanges_validJson() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        uidlWriter.createUidl(ui, false);
+
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, writer);
+
+        JsonObject written = Json.parse(writer.toString());
+        assertFalse(written.hasKey("changes"));
+        assertTrue(written.hasKey(ApplicationConstants.SERVER_SYNC_ID));
+    }
+
+    @Test
+    public void boundedConstantPool_unusedConstantsEvicted() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        ui.getInternals().getConstantPool().setMaxSize(1);
+        UidlWriter uidlWriter = new UidlWriter();
+
+        Element element = ElementFactory.createDiv();
+        ui.getElement().appendChild(element);
+        DomListenerRegistration registration = element
+                .addEventListener("click", event -> {
+                }).addEventData("event.button");
+
+        JsonObject response = uidlWriter.createUidl(ui, false);
+        String[] constantIds = response.getObject("constants").keys();
+        assertEquals(1, constantIds.length);
+        assertFalse(response.hasKey(JsonConstants.UIDL_KEY_EVICTED_CONSTANTS));
+
+        registration.remove();
+        element.addEventListener("click", event -> {
+        }).addEventData("event.detail");
+
+        response = uidlWriter.createUidl(ui, false);
+        JsonArray evicted = response
+                .getArray(JsonConstants.UIDL_KEY_EVICTED_CONSTANTS);
+        assertEquals(1, evicted.length());
+        assertEquals(constantIds[0], evicted.getString(0));
+        assertFalse(
+                response.getObject("constants").hasKey(constantIds[0]));
+    }
+
+    @Test
+    public void compactChangeEncoding_changesEncodedAsArrays()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        mocks.getDeploymentConfiguration().setApplicationOrSystemProperty(
+                Constants.COMPACT_CHANGE_ENCODING, "true");
+        ui.add(new ActualComponent());
+
+        JsonObject response = new UidlWriter().createUidl(ui, false);
+
+        JsonArray changes = response.getArray("changes");
+        assertTrue(changes.length() > 0);
+        boolean hasAttach = false;
+        for (int i = 0; i < changes.length(); i++) {
+            JsonArray change = changes.getArray(i);
+            if ((int) change.getNumber(0) == JsonConstants.CHANGE_CODE_ATTACH) {
+                hasAttach = true;
+                assertEquals(2, change.length());
+            }
+        }
+        assertTrue(hasAttach);
+    }
+
     private UI initializeUIForDependenciesTest(UI ui) throws Exception {
         mocks = new MockServletServiceSessionSetup();
 
@@ -15,7 +15,7 @@
  */
 package com.vaadin.flow.server.communication.rpc;
 
-import java.util.HashMap;
+import java.util.function.Supplier;
 
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -80,7 +80,9 @@ public class AttachTemplateChildRpcHandlerTest {
         Mockito.when(node.getOwner()).thenReturn(tree);
         Mockito.when(node.getParent()).thenReturn(parentNode);
         Mockito.when(tree.getNodeById(requestedId)).thenReturn(node);
-        Mockito.when(node.getChangeTracker(Mockito.any(),Mockito.any())).thenReturn(new HashMap<>());
+        Mockito.when(node.getChangeTracker(Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation
+                        .getArguments()[1]).get());
 
         ElementData data = new ElementData(node);
         data.setTag("foo");
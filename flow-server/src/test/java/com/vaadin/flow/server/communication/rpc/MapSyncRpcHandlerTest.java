@@ -16,6 +16,10 @@
 package com.vaadin.flow.server.communication.rpc;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -232,6 +236,49 @@ public class MapSyncRpcHandlerTest {
         Assert.assertEquals(NEW_VALUE, map.getProperty(TEST_PROPERTY));
     }
 
+    @Test
+    public void handleBatch_lastValueApplied_singleEventPerProperty() {
+        Element element = ElementFactory.createDiv();
+        UI ui = new UI();
+        ui.getElement().appendChild(element);
+        ElementPropertyMap.getModel(element.getNode())
+                .setUpdateFromClientFilter(name -> true);
+
+        List<Serializable> values = new ArrayList<>();
+        element.addPropertyChangeListener(TEST_PROPERTY,
+                event -> values.add(event.getValue()));
+
+        Optional<Runnable> changeEvents = new MapSyncRpcHandler().handleBatch(
+                ui, element.getNode().getId(),
+                Arrays.asList(
+                        createSyncPropertyInvocation(element, TEST_PROPERTY,
+                                "value1"),
+                        createSyncPropertyInvocation(element, "other", "foo"),
+                        createSyncPropertyInvocation(element, TEST_PROPERTY,
+                                "value2")));
+
+        Assert.assertEquals("value2", element.getPropertyRaw(TEST_PROPERTY));
+        Assert.assertEquals("foo", element.getPropertyRaw("other"));
+        Assert.assertTrue(values.isEmpty());
+
+        changeEvents.get().run();
+        Assert.assertEquals(Arrays.asList("value2"), values);
+    }
+
+    @Test
+    public void handleBatch_detachedNode_ignored() {
+        Element element = ElementFactory.createDiv();
+        UI ui = new UI();
+
+        Optional<Runnable> changeEvents = new MapSyncRpcHandler().handleBatch(
+                ui, element.getNode().getId(),
+                Arrays.asList(createSyncPropertyInvocation(element,
+                        TEST_PROPERTY, NEW_VALUE)));
+
+        Assert.assertFalse(changeEvents.isPresent());
+        Assert.assertFalse(element.hasProperty(TEST_PROPERTY));
+    }
+
     private static void sendSynchronizePropertyEvent(Element element, UI ui,
             String eventType, Serializable value) throws Exception {
         new MapSyncRpcHandler().handle(ui,
@@ -599,4 +599,17 @@ public class PublishedServerEventHandlerRpcHandlerTest {
                 .handleNode(component.getElement().getNode(), json);
     }
 
+    @Test
+    public void methodInSuperClass_invokedForEachInstance() {
+        ComponentWithMethod first = new MethodWithVarArgParameter();
+        ComponentWithMethod second = new MethodWithVarArgParameter();
+
+        PublishedServerEventHandlerRpcHandler.invokeMethod(first,
+                first.getClass(), "method", Json.createArray());
+        PublishedServerEventHandlerRpcHandler.invokeMethod(second,
+                second.getClass(), "method", Json.createArray());
+
+        Assert.assertTrue(first.isInvoked);
+        Assert.assertTrue(second.isInvoked);
+    }
 }
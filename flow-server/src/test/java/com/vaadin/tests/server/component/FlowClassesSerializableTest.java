@@ -1,6 +1,7 @@
 package com.vaadin.tests.server.component;
 
 import java.io.OutputStream;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -21,6 +22,14 @@ import static org.junit.Assert.assertTrue;
 
 public class FlowClassesSerializableTest extends ClassesSerializableTest {
 
+    @Override
+    protected Stream<String> getExcludedPatterns() {
+        return Stream.concat(super.getExcludedPatterns(), Stream.of(
+                "com\\.vaadin\\.flow\\.server\\.communication\\.UidlRequestHandler\\$CompressingOutputStream",
+                "com\\.vaadin\\.flow\\.server\\.SessionReaper",
+                "com\\.vaadin\\.flow\\.server\\.HeartbeatExpiryWheel"));
+    }
+
     /**
      * {@link HtmlComponent} and {@link HtmlContainer} are not covered by
      * generic test because of their constructors